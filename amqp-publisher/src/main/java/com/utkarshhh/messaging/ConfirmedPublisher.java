@@ -0,0 +1,279 @@
+package com.utkarshhh.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes AMQP messages off the caller's thread. Messages go into a
+ * bounded queue; a single sender thread drains it in batches, sends each
+ * batch on one channel and waits for the broker's publisher confirms. The
+ * future returned by {@link #publish} completes true on ack and false on
+ * nack, timeout or drop. When the queue is full the configured
+ * {@link OverflowPolicy} applies: block the caller for a while, drop the
+ * message, or spill it to Mongo to be re-queued later (nacked messages are
+ * spilled too under that policy).
+ *
+ * <p>Not a component itself: each service declares it as a bean with its
+ * own settings and spill collection.
+ */
+@Slf4j
+public class ConfirmedPublisher {
+
+    private static final long POLL_MILLIS = 200;
+    private static final long FAILURE_PAUSE_MILLIS = 1_000;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final String spillCollection;
+    private final BlockingQueue<Pending> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final Duration confirmTimeout;
+
+    private final Timer confirmLatency;
+    private final Counter acks;
+    private final Counter nacks;
+    private final Counter dropped;
+    private final Counter spilled;
+
+    private volatile boolean running = true;
+    // set whenever something is spilled; starts true to pick up spills left by a previous run
+    private final AtomicBoolean spillPending = new AtomicBoolean(true);
+    private Thread sender;
+
+    public ConfirmedPublisher(RabbitTemplate rabbitTemplate,
+                              MongoTemplate mongoTemplate,
+                              MeterRegistry meterRegistry,
+                              String spillCollection,
+                              int capacity,
+                              int batchSize,
+                              OverflowPolicy overflowPolicy,
+                              Duration blockTimeout,
+                              Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.spillCollection = spillCollection;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = blockTimeout;
+        this.confirmTimeout = confirmTimeout;
+
+        Gauge.builder("amqp.publisher.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.confirmLatency = Timer.builder("amqp.publisher.confirm.latency").register(meterRegistry);
+        this.acks = Counter.builder("amqp.publisher.acks").register(meterRegistry);
+        this.nacks = Counter.builder("amqp.publisher.nacks").register(meterRegistry);
+        this.dropped = Counter.builder("amqp.publisher.dropped").register(meterRegistry);
+        this.spilled = Counter.builder("amqp.publisher.spilled").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            try {
+                mongoTemplate.indexOps(spillCollection).ensureIndex(new Index("createdAt", Sort.Direction.ASC));
+            } catch (RuntimeException e) {
+                log.warn("Could not ensure the {} index: {}", spillCollection, e.getMessage());
+            }
+        }
+        sender = new Thread(this::sendLoop, "amqp-publisher");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (sender != null) {
+            sender.join(confirmTimeout.toMillis() + POLL_MILLIS);
+        }
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (Pending pending : left) {
+            overflow(pending);
+        }
+    }
+
+    public CompletableFuture<Boolean> publish(String exchange, String routingKey, Object payload) {
+        Message message = rabbitTemplate.getMessageConverter().toMessage(payload, new MessageProperties());
+        Pending pending = new Pending(exchange, routingKey, message, new CompletableFuture<>());
+
+        boolean queued = queue.offer(pending);
+        if (!queued && overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                queued = queue.offer(pending, blockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queued) {
+            overflow(pending);
+        }
+        return pending.result();
+    }
+
+    private void sendLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                refillFromSpill();
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("AMQP publisher batch failed: {}", e.getMessage());
+                batch.forEach(this::nacked);
+                try {
+                    Thread.sleep(FAILURE_PAUSE_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<Pending> batch) {
+        long sentAt = System.nanoTime();
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+
+        rabbitTemplate.invoke(operations -> {
+            for (Pending pending : batch) {
+                CorrelationData correlation = new CorrelationData();
+                operations.send(pending.exchange(), pending.routingKey(), pending.message(), correlation);
+                confirms.add(correlation);
+            }
+            return null;
+        });
+
+        long deadline = sentAt + confirmTimeout.toNanos();
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            boolean ack = false;
+            if (i < confirms.size()) {
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    ack = confirms.get(i).getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck();
+                    confirmLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    // timed out waiting for the broker; treated like a nack
+                }
+            }
+            if (ack) {
+                acks.increment();
+                pending.result().complete(true);
+            } else {
+                nacked(pending);
+            }
+        }
+    }
+
+    private void nacked(Pending pending) {
+        nacks.increment();
+        if (overflowPolicy == OverflowPolicy.SPILL && spill(pending)) {
+            return;
+        }
+        pending.result().complete(false);
+    }
+
+    private void overflow(Pending pending) {
+        if (overflowPolicy == OverflowPolicy.SPILL && spill(pending)) {
+            return;
+        }
+        dropped.increment();
+        log.warn("AMQP publish queue full, dropping message for {}", pending.routingKey());
+        pending.result().complete(false);
+    }
+
+    // the message is durable in Mongo from here on, so the caller is told it was accepted
+    private boolean spill(Pending pending) {
+        try {
+            SpilledMessage message = new SpilledMessage();
+            message.setExchange(pending.exchange());
+            message.setRoutingKey(pending.routingKey());
+            message.setBody(pending.message().getBody());
+            message.setContentType(pending.message().getMessageProperties().getContentType());
+            message.setHeaders(pending.message().getMessageProperties().getHeaders());
+            message.setCreatedAt(LocalDateTime.now());
+            mongoTemplate.insert(message, spillCollection);
+            spillPending.set(true);
+            spilled.increment();
+            pending.result().complete(true);
+            return true;
+        } catch (Exception e) {
+            log.error("Could not spill AMQP message for {}: {}", pending.routingKey(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void refillFromSpill() {
+        if (overflowPolicy != OverflowPolicy.SPILL || !spillPending.get() || queue.size() > capacity / 2) {
+            return;
+        }
+        spillPending.set(false);
+        Query oldest = new Query().with(Sort.by("createdAt")).limit(batchSize);
+        List<SpilledMessage> restored;
+        try {
+            restored = mongoTemplate.findAllAndRemove(oldest, SpilledMessage.class, spillCollection);
+        } catch (RuntimeException e) {
+            spillPending.set(true);
+            throw e;
+        }
+        if (restored.size() == batchSize) {
+            spillPending.set(true);
+        }
+        for (SpilledMessage spilledMessage : restored) {
+            MessageProperties properties = new MessageProperties();
+            properties.setContentType(spilledMessage.getContentType());
+            if (spilledMessage.getHeaders() != null) {
+                spilledMessage.getHeaders().forEach(properties::setHeader);
+            }
+            Pending pending = new Pending(spilledMessage.getExchange(), spilledMessage.getRoutingKey(),
+                    new Message(spilledMessage.getBody(), properties), new CompletableFuture<>());
+            if (!queue.offer(pending)) {
+                spill(pending);
+            }
+        }
+    }
+
+    private record Pending(String exchange, String routingKey, Message message, CompletableFuture<Boolean> result) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.utkarshhh.messaging;
+
+public enum OverflowPolicy {
+    BLOCK,
+    DROP,
+    SPILL,
+}
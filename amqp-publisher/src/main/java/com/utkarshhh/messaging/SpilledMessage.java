@@ -0,0 +1,24 @@
+package com.utkarshhh.messaging;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * An already converted AMQP message parked in Mongo because the publish
+ * queue was full or the broker did not confirm it; re-queued oldest first
+ * once the queue has room again. Each service spills to its own collection.
+ */
+@Data
+public class SpilledMessage {
+    @Id
+    private String id;
+    private String exchange;
+    private String routingKey;
+    private byte[] body;
+    private String contentType;
+    private Map<String, Object> headers;
+    private LocalDateTime createdAt;
+}
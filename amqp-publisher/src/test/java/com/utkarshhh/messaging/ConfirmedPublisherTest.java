@@ -0,0 +1,73 @@
+package com.utkarshhh.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConfirmedPublisherTest {
+
+	private RabbitTemplate rabbitTemplate;
+	private MongoTemplate mongoTemplate;
+
+	@BeforeEach
+	void setUp() {
+		rabbitTemplate = mock(RabbitTemplate.class);
+		when(rabbitTemplate.getMessageConverter()).thenReturn(new SimpleMessageConverter());
+		mongoTemplate = mock(MongoTemplate.class);
+	}
+
+	@Test
+	void dropPolicyFailsWhatDoesNotFit() {
+		ConfirmedPublisher publisher = publisher(OverflowPolicy.DROP);
+
+		CompletableFuture<Boolean> queued = publisher.publish("exchange", "first", "one");
+		CompletableFuture<Boolean> overflowed = publisher.publish("exchange", "second", "two");
+
+		assertFalse(queued.isDone());
+		assertFalse(overflowed.join());
+		verify(mongoTemplate, never()).insert(any(SpilledMessage.class), anyString());
+	}
+
+	@Test
+	void spillPolicyParksOverflowInTheServiceCollection() throws Exception {
+		ConfirmedPublisher publisher = publisher(OverflowPolicy.SPILL);
+
+		publisher.publish("exchange", "first", "one");
+		CompletableFuture<Boolean> overflowed = publisher.publish("exchange", "second", "two");
+
+		assertTrue(overflowed.join());
+		ArgumentCaptor<SpilledMessage> spilled = ArgumentCaptor.forClass(SpilledMessage.class);
+		verify(mongoTemplate).insert(spilled.capture(), eq("test_amqp_spill"));
+		assertEquals("second", spilled.getValue().getRoutingKey());
+		assertArrayEquals("two".getBytes(), spilled.getValue().getBody());
+
+		// whatever is still queued at shutdown is spilled too rather than lost
+		publisher.stop();
+		verify(mongoTemplate, times(2)).insert(any(SpilledMessage.class), eq("test_amqp_spill"));
+	}
+
+	private ConfirmedPublisher publisher(OverflowPolicy overflowPolicy) {
+		return new ConfirmedPublisher(rabbitTemplate, mongoTemplate, new SimpleMeterRegistry(), "test_amqp_spill",
+				1, 10, overflowPolicy, Duration.ofMillis(10), Duration.ofMillis(100));
+	}
+}
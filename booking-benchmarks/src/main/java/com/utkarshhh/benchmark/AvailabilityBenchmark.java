@@ -0,0 +1,62 @@
+package com.utkarshhh.benchmark;
+
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.service.Impl.BookingServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code isTimeSlotAvailable} for a free half hour on one of the four weeks
+ * nearest the end of the salon's history. With an index TTL of zero every
+ * call reloads the day from the repository; with the default TTL the days
+ * stay in the interval index, so the numbers show both the cold and the
+ * warm path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class AvailabilityBenchmark {
+
+    @Param({"100", "10000", "100000", "1000000"})
+    private int historySize;
+
+    @Param({"PT5M", "PT0S"})
+    private String indexTtl;
+
+    private BookingServiceImpl bookingService;
+    private SalonDTO salon;
+    private List<LocalDate> days;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        bookingService = BookingFixtures.bookingService(
+                InMemoryBookingRepository.of(BookingFixtures.history(historySize)), null, Duration.parse(indexTtl));
+        salon = BookingFixtures.salon();
+        days = BookingFixtures.recentDays(28);
+    }
+
+    @Benchmark
+    public Boolean isTimeSlotAvailable() throws Exception {
+        LocalDateTime start = days.get(next++ % days.size()).atTime(BookingFixtures.FREE_FROM);
+        return bookingService.isTimeSlotAvailable(salon, start, start.plusMinutes(30));
+    }
+}
@@ -0,0 +1,54 @@
+package com.utkarshhh.benchmark;
+
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.service.Impl.BookingServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getBookingByDate}: the day's active bookings, with cancelled ones
+ * and lapsed holds filtered out, for one of the four weeks nearest the end
+ * of the salon's history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BookingByDateBenchmark {
+
+    @Param({"100", "10000", "100000", "1000000"})
+    private int historySize;
+
+    private BookingServiceImpl bookingService;
+    private List<LocalDate> days;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        bookingService = BookingFixtures.bookingService(
+                InMemoryBookingRepository.of(BookingFixtures.history(historySize)), null, Duration.ofMinutes(5));
+        days = BookingFixtures.recentDays(28);
+    }
+
+    @Benchmark
+    public List<Booking> getBookingByDate() {
+        return bookingService.getBookingByDate(days.get(next++ % days.size()).atStartOfDay(),
+                BookingFixtures.SALON_ID);
+    }
+}
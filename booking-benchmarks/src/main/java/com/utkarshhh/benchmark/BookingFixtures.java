@@ -0,0 +1,176 @@
+package com.utkarshhh.benchmark;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.PaymentStatus;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.SalonReportDaily;
+import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.service.AvailabilityEngine;
+import com.utkarshhh.service.BookingIntervalIndex;
+import com.utkarshhh.service.HoldExpiryService;
+import com.utkarshhh.service.SalonReportRollupService;
+import com.utkarshhh.service.Impl.BookingServiceImpl;
+import com.utkarshhh.service.Impl.IndexAvailabilityEngine;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Synthetic salon history for the benchmarks. Days are filled back to back
+ * from opening time, newest first, until the requested number of bookings
+ * exists; the last hour before closing is always left free so availability
+ * probes have a slot to find. The history runs two weeks into the future,
+ * like a salon taking advance bookings.
+ */
+public final class BookingFixtures {
+
+    public static final String SALON_ID = "salon-benchmark";
+    public static final LocalTime OPEN = LocalTime.of(9, 0);
+    public static final LocalTime CLOSE = LocalTime.of(21, 0);
+    public static final LocalTime FREE_FROM = LocalTime.of(20, 0);
+
+    private static final int[] DURATIONS = {30, 45, 60, 90};
+    private static final long SEED = 42;
+
+    private BookingFixtures() {
+    }
+
+    public static LocalDate lastDay() {
+        return LocalDate.now().plusDays(14);
+    }
+
+    /**
+     * The {@code count} days ending at {@link #lastDay()}, oldest first.
+     */
+    public static List<LocalDate> recentDays(int count) {
+        List<LocalDate> days = new ArrayList<>();
+        for (int i = count - 1; i >= 0; i--) {
+            days.add(lastDay().minusDays(i));
+        }
+        return days;
+    }
+
+    public static SalonDTO salon() {
+        SalonDTO salon = new SalonDTO();
+        salon.setId(SALON_ID);
+        salon.setName("Benchmark Salon");
+        salon.setOpenTime(OPEN);
+        salon.setCloseTime(CLOSE);
+        return salon;
+    }
+
+    public static List<Booking> history(int size) {
+        Random random = new Random(SEED);
+        List<Booking> bookings = new ArrayList<>(size);
+        LocalDateTime lapsed = LocalDateTime.now().minusHours(1);
+
+        for (LocalDate day = lastDay(); bookings.size() < size; day = day.minusDays(1)) {
+            LocalDateTime start = day.atTime(OPEN);
+            while (bookings.size() < size) {
+                LocalDateTime end = start.plusMinutes(DURATIONS[random.nextInt(DURATIONS.length)]);
+                if (end.isAfter(day.atTime(FREE_FROM))) {
+                    break;
+                }
+                bookings.add(booking(random, start, end, lapsed));
+                start = end;
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Daily rollups matching what the rollup service would hold for the
+     * given bookings.
+     */
+    public static List<SalonReportDaily> rollups(Collection<Booking> bookings) {
+        Map<LocalDate, SalonReportDaily> days = new TreeMap<>();
+        for (Booking booking : bookings) {
+            LocalDate date = booking.getStartTime().toLocalDate();
+            SalonReportDaily daily = days.computeIfAbsent(date, d -> {
+                SalonReportDaily row = new SalonReportDaily();
+                row.setId(booking.getSalonId() + ":" + d);
+                row.setSalonId(booking.getSalonId());
+                row.setDate(d);
+                return row;
+            });
+            daily.setTotalBooking(daily.getTotalBooking() + 1);
+            if (booking.getStatus() == BookingStatus.CONFIRM) {
+                daily.setTotalEarnings(daily.getTotalEarnings() + booking.getTotalPrice());
+            } else if (booking.getStatus() == BookingStatus.CANCELLED) {
+                daily.setCancelledBooking(daily.getCancelledBooking() + 1);
+                daily.setTotalRefund(daily.getTotalRefund() + booking.getTotalPrice());
+            }
+        }
+        return new ArrayList<>(days.values());
+    }
+
+    /**
+     * A booking service wired to the given fakes with the index availability
+     * engine. Paths that would write to Mongo (slot claims, hold release,
+     * rollup updates) are not reachable from the benchmarked calls.
+     */
+    public static BookingServiceImpl bookingService(BookingRepository bookingRepository,
+                                                    MongoTemplate mongoTemplate,
+                                                    Duration indexTtl) {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, indexTtl, 100_000);
+        AvailabilityEngine engine = new IndexAvailabilityEngine(index, null);
+        SalonReportRollupService rollups = new SalonReportRollupService(mongoTemplate);
+        HoldExpiryService holds = new HoldExpiryService(mongoTemplate, engine, rollups, null, null,
+                Duration.ofMinutes(15), 500, Duration.ofMinutes(2)) {
+            @Override
+            public int releaseExpired(String salonId, LocalDateTime from, LocalDateTime to) {
+                return 0;
+            }
+        };
+        return new BookingServiceImpl(bookingRepository, engine, rollups, holds, null);
+    }
+
+    private static Booking booking(Random random, LocalDateTime start, LocalDateTime end, LocalDateTime lapsed) {
+        Booking booking = new Booking();
+        booking.setId(new ObjectId().toHexString());
+        booking.setSalonId(SALON_ID);
+        int customer = random.nextInt(5_000);
+        booking.setCustomerId("customer-" + customer);
+        booking.setCustomerName("Customer " + customer);
+        booking.setCustomerEmail("customer" + customer + "@example.com");
+        booking.setStartTime(start);
+        booking.setEndTime(end);
+
+        Set<String> serviceIds = new LinkedHashSet<>();
+        int services = 1 + random.nextInt(3);
+        for (int i = 0; i < services; i++) {
+            serviceIds.add("service-" + random.nextInt(20));
+        }
+        booking.setServiceIds(serviceIds);
+        booking.setTotalPrice(200 + random.nextInt(1_800));
+        booking.setPaymentMethod("STRIPE");
+
+        int roll = random.nextInt(100);
+        if (roll < 75) {
+            booking.setStatus(BookingStatus.CONFIRM);
+            booking.setPaymentStatus(PaymentStatus.PAID);
+        } else if (roll < 85) {
+            booking.setStatus(BookingStatus.COMPLETED);
+            booking.setPaymentStatus(PaymentStatus.PAID);
+        } else if (roll < 95) {
+            booking.setStatus(BookingStatus.CANCELLED);
+        } else {
+            // an abandoned checkout whose hold has lapsed
+            booking.setHoldExpiresAt(lapsed);
+        }
+        return booking;
+    }
+}
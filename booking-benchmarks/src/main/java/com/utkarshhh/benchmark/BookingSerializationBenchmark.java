@@ -0,0 +1,75 @@
+package com.utkarshhh.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.utkarshhh.dto.BookingDTO;
+import com.utkarshhh.mapper.BookingMapper;
+import com.utkarshhh.model.Booking;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * What a list endpoint spends turning bookings into a response body:
+ * {@code BookingMapper.toDTO} over the list, Jackson serialization of the
+ * mapped list, and both together. The object mapper is configured the way
+ * Spring Boot configures the service's own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BookingSerializationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int listSize;
+
+    private List<Booking> bookings;
+    private List<BookingDTO> dtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        bookings = BookingFixtures.history(listSize);
+        dtos = toDTOs(bookings);
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public List<BookingDTO> toDTO() {
+        return toDTOs(bookings);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] toDTOAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(toDTOs(bookings));
+    }
+
+    private static List<BookingDTO> toDTOs(List<Booking> bookings) {
+        return bookings.stream()
+                .map(BookingMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,119 @@
+package com.utkarshhh.benchmark;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.dto.BookingSummaryDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.repository.BookingRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link BookingRepository} that answers the active-overlap queries from
+ * per-salon arrays sorted by start time, the way the salon_start_end_status
+ * index answers them in Mongo: a binary search to the first booking that
+ * can still overlap the window, then a scan up to the window's end. Every
+ * other repository method throws, so a benchmark cannot quietly measure a
+ * path the fake does not model.
+ */
+public final class InMemoryBookingRepository implements InvocationHandler {
+
+    private final Map<String, Booking[]> bySalon;
+    private final Duration longest;
+
+    private InMemoryBookingRepository(List<Booking> bookings) {
+        this.bySalon = bookings.stream()
+                .sorted(Comparator.comparing(Booking::getStartTime))
+                .collect(Collectors.groupingBy(Booking::getSalonId, HashMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(), list -> list.toArray(new Booking[0]))));
+        this.longest = bookings.stream()
+                .map(booking -> Duration.between(booking.getStartTime(), booking.getEndTime()))
+                .max(Comparator.naturalOrder())
+                .orElse(Duration.ZERO);
+    }
+
+    public static BookingRepository of(List<Booking> bookings) {
+        return (BookingRepository) Proxy.newProxyInstance(BookingRepository.class.getClassLoader(),
+                new Class<?>[]{BookingRepository.class}, new InMemoryBookingRepository(bookings));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findActiveBySalonIdOverlapping":
+                return findActive((String) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2],
+                        (LocalDateTime) args[3]);
+            case "findActiveSummariesBySalonIdOverlapping":
+                return findActive((String) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2],
+                        (LocalDateTime) args[3]).stream()
+                        .map(InMemoryBookingRepository::toSummary)
+                        .collect(Collectors.toList());
+            case "toString":
+                return "InMemoryBookingRepository";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                throw new UnsupportedOperationException("Not modelled by the benchmark fake: " + method);
+        }
+    }
+
+    // the ACTIVE_OVERLAPPING query: not cancelled, and not a PENDING hold that lapsed before now
+    private List<Booking> findActive(String salonId, LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        Booking[] bookings = bySalon.get(salonId);
+        List<Booking> matches = new ArrayList<>();
+        if (bookings == null) {
+            return matches;
+        }
+
+        for (int i = firstStartingFrom(bookings, start.minus(longest));
+             i < bookings.length && bookings[i].getStartTime().isBefore(end); i++) {
+            Booking booking = bookings[i];
+            if (!booking.getEndTime().isAfter(start) || booking.getStatus() == BookingStatus.CANCELLED) {
+                continue;
+            }
+            if (booking.getStatus() == BookingStatus.PENDING && booking.getHoldExpiresAt() != null
+                    && !booking.getHoldExpiresAt().isAfter(now)) {
+                continue;
+            }
+            matches.add(booking);
+        }
+        return matches;
+    }
+
+    private static int firstStartingFrom(Booking[] bookings, LocalDateTime time) {
+        int low = 0;
+        int high = bookings.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bookings[mid].getStartTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static BookingSummaryDTO toSummary(Booking booking) {
+        BookingSummaryDTO summary = new BookingSummaryDTO();
+        summary.setId(booking.getId());
+        summary.setSalonId(booking.getSalonId());
+        summary.setStartTime(booking.getStartTime());
+        summary.setEndTime(booking.getEndTime());
+        summary.setStatus(booking.getStatus());
+        summary.setPaymentStatus(booking.getPaymentStatus());
+        summary.setTotalPrice(booking.getTotalPrice());
+        return summary;
+    }
+}
@@ -0,0 +1,126 @@
+package com.utkarshhh.benchmark;
+
+import com.utkarshhh.domain.JobStatus;
+import com.utkarshhh.model.MigrationCheckpoint;
+import com.utkarshhh.model.SalonReportDaily;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link MongoTemplate} that runs the salon report aggregation over
+ * in-memory {@link SalonReportDaily} rows kept in date order, so a date
+ * range starts with a binary search as it would on the salon_date index.
+ * The totals are summed into the same document shape Mongo's $group
+ * returns and mapped by the template's own converter. The rollups count as
+ * fully seeded. Any other operation reaches a database factory that throws.
+ */
+public class InMemoryRollupTemplate extends MongoTemplate {
+
+    private final List<SalonReportDaily> rollups;
+
+    public InMemoryRollupTemplate(List<SalonReportDaily> rollups) {
+        super(unavailableDatabase(), converter());
+        this.rollups = rollups.stream()
+                .sorted(Comparator.comparing(SalonReportDaily::getDate))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public <O> AggregationResults<O> aggregate(Aggregation aggregation, Class<?> inputType, Class<O> outputType) {
+        if (inputType != SalonReportDaily.class) {
+            throw new UnsupportedOperationException("Not modelled by the benchmark fake: " + inputType);
+        }
+
+        Document match = aggregation.toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$match", Document.class);
+        String salonId = match.getString("salonId");
+        Document date = match.get("date", Document.class);
+        LocalDate from = date != null ? (LocalDate) date.get("$gte") : null;
+        LocalDate to = date != null ? (LocalDate) date.get("$lte") : null;
+
+        long totalEarnings = 0;
+        long totalBooking = 0;
+        long cancelledBooking = 0;
+        long totalRefund = 0;
+        boolean any = false;
+        for (int i = from != null ? firstOnOrAfter(from) : 0; i < rollups.size(); i++) {
+            SalonReportDaily daily = rollups.get(i);
+            if (to != null && daily.getDate().isAfter(to)) {
+                break;
+            }
+            if (!daily.getSalonId().equals(salonId)) {
+                continue;
+            }
+            any = true;
+            totalEarnings += daily.getTotalEarnings();
+            totalBooking += daily.getTotalBooking();
+            cancelledBooking += daily.getCancelledBooking();
+            totalRefund += daily.getTotalRefund();
+        }
+        if (!any) {
+            return new AggregationResults<>(List.of(), new Document());
+        }
+
+        Document totals = new Document("_id", salonId)
+                .append("totalEarnings", totalEarnings)
+                .append("totalBooking", totalBooking)
+                .append("cancelledBooking", cancelledBooking)
+                .append("totalRefund", totalRefund);
+        return new AggregationResults<>(List.of(getConverter().read(outputType, totals)), new Document());
+    }
+
+    @Override
+    public <T> T findById(Object id, Class<T> entityClass) {
+        if (entityClass != MigrationCheckpoint.class) {
+            throw new UnsupportedOperationException("Not modelled by the benchmark fake: " + entityClass);
+        }
+        MigrationCheckpoint seeded = new MigrationCheckpoint();
+        seeded.setId(String.valueOf(id));
+        seeded.setStatus(JobStatus.COMPLETED);
+        return entityClass.cast(seeded);
+    }
+
+    private int firstOnOrAfter(LocalDate date) {
+        int low = 0;
+        int high = rollups.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rollups.get(mid).getDate().isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static MongoDatabaseFactory unavailableDatabase() {
+        MongoExceptionTranslator translator = new MongoExceptionTranslator();
+        return (MongoDatabaseFactory) Proxy.newProxyInstance(MongoDatabaseFactory.class.getClassLoader(),
+                new Class<?>[]{MongoDatabaseFactory.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getExceptionTranslator")) {
+                        return translator;
+                    }
+                    throw new UnsupportedOperationException("Not modelled by the benchmark fake: " + method);
+                });
+    }
+
+    private static MappingMongoConverter converter() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+                new MongoMappingContext());
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
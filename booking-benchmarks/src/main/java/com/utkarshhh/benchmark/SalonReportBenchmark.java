@@ -0,0 +1,61 @@
+package com.utkarshhh.benchmark;
+
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.SalonReport;
+import com.utkarshhh.service.Impl.BookingServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getSalonReport} over the daily rollups of the salon's history,
+ * for all time and for the last thirty days. The rollup rows scale with
+ * the number of days the history spans, not with the number of bookings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SalonReportBenchmark {
+
+    @Param({"100", "10000", "100000", "1000000"})
+    private int historySize;
+
+    private BookingServiceImpl bookingService;
+    private LocalDate monthAgo;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        List<Booking> history = BookingFixtures.history(historySize);
+        bookingService = BookingFixtures.bookingService(InMemoryBookingRepository.of(history),
+                new InMemoryRollupTemplate(BookingFixtures.rollups(history)), Duration.ofMinutes(5));
+        today = LocalDate.now();
+        monthAgo = today.minusDays(30);
+    }
+
+    @Benchmark
+    public SalonReport allTime() {
+        return bookingService.getSalonReport(BookingFixtures.SALON_ID, null, null);
+    }
+
+    @Benchmark
+    public SalonReport lastThirtyDays() {
+        return bookingService.getSalonReport(BookingFixtures.SALON_ID, monthAgo, today);
+    }
+}
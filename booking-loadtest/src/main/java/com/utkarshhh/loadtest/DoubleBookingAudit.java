@@ -0,0 +1,63 @@
+package com.utkarshhh.loadtest;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts double bookings in what the run left behind: for every salon the
+ * non-cancelled bookings are swept in time order, and each booking that
+ * starts while all of the salon's chairs are already taken counts once.
+ * Reads the collection directly, so it checks what was stored rather than
+ * what the service reported.
+ */
+final class DoubleBookingAudit {
+
+    private DoubleBookingAudit() {
+    }
+
+    static int count(MongoTemplate mongoTemplate, Map<String, Integer> capacities) {
+        Query query = Query.query(Criteria.where("status").ne(BookingStatus.CANCELLED));
+        query.fields().include("salonId", "startTime", "endTime");
+        Map<String, List<Booking>> bySalon = mongoTemplate.find(query, Booking.class).stream()
+                .collect(Collectors.groupingBy(Booking::getSalonId));
+
+        int doubles = 0;
+        for (Map.Entry<String, List<Booking>> salon : bySalon.entrySet()) {
+            doubles += overCapacity(salon.getValue(), capacities.getOrDefault(salon.getKey(), 1));
+        }
+        return doubles;
+    }
+
+    // events are (epoch second << 1) | isStart, so at equal times an end sorts before a start
+    private static int overCapacity(List<Booking> bookings, int capacity) {
+        long[] events = new long[bookings.size() * 2];
+        int i = 0;
+        for (Booking booking : bookings) {
+            events[i++] = (booking.getStartTime().toEpochSecond(ZoneOffset.UTC) << 1) | 1;
+            events[i++] = booking.getEndTime().toEpochSecond(ZoneOffset.UTC) << 1;
+        }
+        Arrays.sort(events);
+
+        int taken = 0;
+        int over = 0;
+        for (long event : events) {
+            if ((event & 1) == 1) {
+                if (++taken > capacity) {
+                    over++;
+                }
+            } else {
+                taken--;
+            }
+        }
+        return over;
+    }
+}
@@ -0,0 +1,107 @@
+package com.utkarshhh.loadtest;
+
+import com.utkarshhh.model.Salon;
+import com.utkarshhh.model.ServiceOffering;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires booking attempts at {@code POST /api/bookings} from a fixed pool of
+ * client threads, each sending its next request as soon as the previous
+ * one is answered. Salons and start times are drawn from Zipf
+ * distributions, so a few salons and the late-morning slots take most of
+ * the traffic and contend for the same chairs.
+ */
+final class LoadDriver {
+
+    private static final String SLOT_TAKEN = "not available";
+
+    private final URI endpoint;
+    private final LoadTestOptions options;
+    private final LoadFixtures fixtures;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    LoadDriver(URI endpoint, LoadTestOptions options, LoadFixtures fixtures) {
+        this.endpoint = endpoint;
+        this.options = options;
+        this.fixtures = fixtures;
+    }
+
+    LoadResult run(LocalDate day, int requests) throws InterruptedException {
+        List<Salon> salons = fixtures.salons();
+        List<LocalDateTime> slots = LoadFixtures.slotsByPopularity(day);
+        ZipfSampler salonSampler = new ZipfSampler(salons.size(), options.salonSkew());
+        ZipfSampler slotSampler = new ZipfSampler(slots.size(), options.slotSkew());
+
+        LoadResult result = new LoadResult(requests);
+        AtomicInteger issued = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(options.threads());
+        long started = System.nanoTime();
+
+        for (int worker = 0; worker < options.threads(); worker++) {
+            Random random = new Random(options.seed() * 31 + worker);
+            pool.execute(() -> {
+                while (issued.getAndIncrement() < requests) {
+                    Salon salon = salons.get(salonSampler.next(random));
+                    List<ServiceOffering> services = fixtures.services(salon.getId());
+                    ServiceOffering service = services.get(random.nextInt(services.size()));
+                    String user = "load-user-" + random.nextInt(100_000);
+                    send(result, request(salon, service, slots.get(slotSampler.next(random)), user));
+                }
+            });
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(1, TimeUnit.HOURS)) {
+            pool.shutdownNow();
+        }
+        result.finish(System.nanoTime() - started);
+        return result;
+    }
+
+    private HttpRequest request(Salon salon, ServiceOffering service, LocalDateTime start, String user) {
+        String body = String.format(
+                "{\"salonId\":\"%s\",\"startTime\":\"%s\",\"serviceIds\":[\"%s\"],\"paymentMethod\":\"STRIPE\"}",
+                salon.getId(), start, service.getId());
+        return HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "application/json")
+                .header("User-Id", user)
+                .header("User-Name", "Load User")
+                .header("User-Email", user + "@loadtest.local")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private void send(LoadResult result, HttpRequest request) {
+        long sentAt = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - sentAt;
+            if (response.statusCode() == 201) {
+                result.created(latency);
+            } else if (response.statusCode() == 400 && response.body().contains(SLOT_TAKEN)) {
+                result.slotTaken(latency);
+            } else {
+                result.failed(latency, response.statusCode() + " " + response.body());
+            }
+        } catch (IOException e) {
+            result.failed(System.nanoTime() - sentAt, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.utkarshhh.loadtest;
+
+import com.utkarshhh.model.Salon;
+import com.utkarshhh.model.ServiceOffering;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The salons and service offerings the storm books against, seeded into
+ * the collections booking-service reads them from. Holds never expire, so
+ * every booking made during the run still counts when it is audited.
+ */
+final class LoadFixtures {
+
+    static final LocalTime OPEN = LocalTime.of(9, 0);
+    static final LocalTime CLOSE = LocalTime.of(19, 0);
+    // the peak of a Saturday-morning rush
+    private static final LocalTime PEAK = LocalTime.of(10, 30);
+    private static final int SLOT_MINUTES = 15;
+    private static final int[] DURATIONS = {30, 45, 60};
+
+    private final List<Salon> salons = new ArrayList<>();
+    private final Map<String, List<ServiceOffering>> services = new HashMap<>();
+
+    LoadFixtures(int salonCount, int chairs) {
+        for (int i = 1; i <= salonCount; i++) {
+            Salon salon = new Salon();
+            salon.setId(String.format("salon-%03d", i));
+            salon.setName("Load Test Salon " + i);
+            salon.setCity("Loadtown");
+            salon.setOpenTime(OPEN);
+            salon.setCloseTime(CLOSE);
+            salon.setHoldMinutes(0);
+            salon.setChairCount(chairs);
+            salons.add(salon);
+
+            List<ServiceOffering> offerings = new ArrayList<>();
+            for (int duration : DURATIONS) {
+                ServiceOffering offering = new ServiceOffering();
+                offering.setId(salon.getId() + "-service-" + duration);
+                offering.setName(duration + " minute cut");
+                offering.setDuration(duration);
+                offering.setPrice(duration * 10);
+                offering.setSalonId(salon.getId());
+                offerings.add(offering);
+            }
+            services.put(salon.getId(), offerings);
+        }
+    }
+
+    void seed(MongoTemplate mongoTemplate) {
+        salons.forEach(mongoTemplate::save);
+        services.values().forEach(offerings -> offerings.forEach(mongoTemplate::save));
+    }
+
+    List<Salon> salons() {
+        return salons;
+    }
+
+    List<ServiceOffering> services(String salonId) {
+        return services.get(salonId);
+    }
+
+    Map<String, Integer> capacities() {
+        Map<String, Integer> capacities = new HashMap<>();
+        salons.forEach(salon -> capacities.put(salon.getId(), salon.getChairCount()));
+        return capacities;
+    }
+
+    /**
+     * Start times on the day that leave room for the longest service,
+     * most wanted first.
+     */
+    static List<LocalDateTime> slotsByPopularity(LocalDate day) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        LocalDateTime last = day.atTime(CLOSE).minusMinutes(DURATIONS[DURATIONS.length - 1]);
+        for (LocalDateTime slot = day.atTime(OPEN); !slot.isAfter(last); slot = slot.plusMinutes(SLOT_MINUTES)) {
+            slots.add(slot);
+        }
+        LocalDateTime peak = day.atTime(PEAK);
+        slots.sort(Comparator.comparing((LocalDateTime slot) -> Duration.between(peak, slot).abs())
+                .thenComparing(Comparator.naturalOrder()));
+        return slots;
+    }
+}
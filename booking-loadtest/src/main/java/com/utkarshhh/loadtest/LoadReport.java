@@ -0,0 +1,81 @@
+package com.utkarshhh.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The summary of a run: printed for whoever started it and written as JSON
+ * next to earlier runs so storms can be compared over time.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final LoadResult result;
+    private final int doubleBookings;
+
+    LoadReport(LoadTestOptions options, String engine, LoadResult result, int doubleBookings) {
+        this.result = result;
+        this.doubleBookings = doubleBookings;
+
+        values.put("engine", engine);
+        values.put("threads", options.threads());
+        values.put("salons", options.salons());
+        values.put("chairs", options.chairs());
+        values.put("salonSkew", options.salonSkew());
+        values.put("slotSkew", options.slotSkew());
+        values.put("requests", result.requests());
+        values.put("created", result.created());
+        values.put("slotTaken", result.slotTaken());
+        values.put("failed", result.failed());
+        values.put("seconds", result.seconds());
+        values.put("throughputPerSecond", result.throughput());
+        Map<String, Double> latency = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            latency.put("p" + label(percentile), result.percentileMillis(percentile));
+        }
+        latency.put("max", result.percentileMillis(100));
+        values.put("latencyMillis", latency);
+        values.put("doubleBookings", doubleBookings);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%nBooking storm: %d threads, %d salons x %d chairs, engine %s%n",
+                values.get("threads"), values.get("salons"), values.get("chairs"), values.get("engine"));
+        out.printf("  requests        %d (created %d, slot taken %d, failed %d)%n",
+                result.requests(), result.created(), result.slotTaken(), result.failed());
+        out.printf("  throughput      %.1f req/s over %.2f s%n", result.throughput(), result.seconds());
+        StringBuilder latency = new StringBuilder("  latency ms     ");
+        for (double percentile : PERCENTILES) {
+            latency.append(String.format(" p%s %.2f", label(percentile), result.percentileMillis(percentile)));
+        }
+        latency.append(String.format(" max %.2f", result.percentileMillis(100)));
+        out.println(latency);
+        out.printf("  double bookings %d%n", doubleBookings);
+        if (result.firstFailure() != null) {
+            out.printf("  first failure   %s%n", result.firstFailure());
+        }
+    }
+
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("loadtest-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), values);
+        return file;
+    }
+
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,94 @@
+package com.utkarshhh.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Outcome counts and per-request latencies of one run. Latencies are
+ * written to a preallocated array by whichever client thread finished the
+ * request and sorted once the run is over.
+ */
+final class LoadResult {
+
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger slotTaken = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicReference<String> firstFailure = new AtomicReference<>();
+    private long elapsedNanos;
+    private long[] sorted;
+
+    LoadResult(int requests) {
+        latencies = new long[requests];
+    }
+
+    void created(long latencyNanos) {
+        created.incrementAndGet();
+        record(latencyNanos);
+    }
+
+    void slotTaken(long latencyNanos) {
+        slotTaken.incrementAndGet();
+        record(latencyNanos);
+    }
+
+    void failed(long latencyNanos, String reason) {
+        failed.incrementAndGet();
+        firstFailure.compareAndSet(null, reason);
+        record(latencyNanos);
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+        sorted = Arrays.copyOf(latencies, recorded.get());
+        Arrays.sort(sorted);
+    }
+
+    int requests() {
+        return recorded.get();
+    }
+
+    int created() {
+        return created.get();
+    }
+
+    int slotTaken() {
+        return slotTaken.get();
+    }
+
+    int failed() {
+        return failed.get();
+    }
+
+    String firstFailure() {
+        return firstFailure.get();
+    }
+
+    double seconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    double throughput() {
+        return elapsedNanos > 0 ? requests() / seconds() : 0;
+    }
+
+    /**
+     * Latency in milliseconds at the given percentile (0-100), nearest rank.
+     */
+    double percentileMillis(double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1e6;
+    }
+
+    private void record(long latencyNanos) {
+        int index = recorded.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = latencyNanos;
+        }
+    }
+}
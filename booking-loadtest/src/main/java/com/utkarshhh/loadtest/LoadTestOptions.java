@@ -0,0 +1,67 @@
+package com.utkarshhh.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Harness settings, read from {@code --loadtest.<name>=<value>} arguments.
+ * Every other argument is handed to booking-service unchanged, so for
+ * example {@code --booking.availability.engine=index} runs the same storm
+ * against another engine.
+ *
+ * @param threads   concurrent clients
+ * @param requests  measured booking attempts
+ * @param warmup    attempts made first, on the following day, and left out of the numbers
+ * @param salons    salons seeded
+ * @param chairs    chairs per salon
+ * @param salonSkew Zipf exponent of salon popularity; 0 spreads traffic evenly
+ * @param slotSkew  Zipf exponent of slot popularity, with late morning the most wanted
+ * @param seed      seed of the traffic generator
+ * @param quiet     whether booking-service's console output is discarded during the run
+ * @param appArgs   arguments passed through to booking-service
+ */
+public record LoadTestOptions(int threads,
+                              int requests,
+                              int warmup,
+                              int salons,
+                              int chairs,
+                              double salonSkew,
+                              double slotSkew,
+                              long seed,
+                              boolean quiet,
+                              List<String> appArgs) {
+
+    private static final String PREFIX = "--loadtest.";
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith(PREFIX) && equals > 0) {
+                values.put(arg.substring(PREFIX.length(), equals), arg.substring(equals + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("threads", "32")),
+                Integer.parseInt(values.getOrDefault("requests", "5000")),
+                Integer.parseInt(values.getOrDefault("warmup", "500")),
+                Integer.parseInt(values.getOrDefault("salons", "20")),
+                Integer.parseInt(values.getOrDefault("chairs", "1")),
+                Double.parseDouble(values.getOrDefault("salon-skew", "1.1")),
+                Double.parseDouble(values.getOrDefault("slot-skew", "0.8")),
+                Long.parseLong(values.getOrDefault("seed", "7")),
+                Boolean.parseBoolean(values.getOrDefault("quiet", "true")),
+                appArgs);
+        if (options.threads < 1 || options.requests < 1 || options.warmup < 0
+                || options.salons < 1 || options.chairs < 1) {
+            throw new IllegalArgumentException("threads, requests, salons and chairs must be positive");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,111 @@
+package com.utkarshhh.loadtest;
+
+import com.utkarshhh.BookingServiceApplication;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.ServerVersion;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reproduces a Saturday-morning booking storm without Keycloak, Eureka,
+ * RabbitMQ or a Mongo cluster. booking-service is booted in this process
+ * against an in-memory mongo-java-server, with {@link StandInConfig} in
+ * place of its remote clients; the storm then books next Saturday through
+ * real HTTP, and afterwards the stored bookings are audited for double
+ * bookings. Exits with status 1 when any are found.
+ *
+ * <pre>
+ * mvn -f booking-service install -DskipTests
+ * mvn -f booking-loadtest package
+ * java -jar booking-loadtest/target/booking-loadtest-0.0.1-SNAPSHOT.jar --loadtest.threads=64 --loadtest.requests=20000
+ * </pre>
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        MongoServer mongo = new MongoServer(new MemoryBackend().version(ServerVersion.MONGO_5_0));
+        String mongoUri = mongo.bindAndGetConnectionString() + "/loadtest";
+
+        int status;
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(BookingServiceApplication.class,
+                StandInConfig.class).run(appArgs(options, mongoUri))) {
+            status = storm(options, app);
+        } finally {
+            mongo.shutdownNow();
+        }
+        System.exit(status);
+    }
+
+    private static int storm(LoadTestOptions options, ConfigurableApplicationContext app) throws Exception {
+        MongoTemplate mongoTemplate = app.getBean(MongoTemplate.class);
+        LoadFixtures fixtures = new LoadFixtures(options.salons(), options.chairs());
+        fixtures.seed(mongoTemplate);
+
+        int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+        LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port + "/api/bookings"), options, fixtures);
+        LocalDate saturday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        LoadResult result;
+        if (options.quiet()) {
+            PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+            System.setOut(discard);
+            System.setErr(discard);
+        }
+        try {
+            if (options.warmup() > 0) {
+                driver.run(saturday.plusDays(1), options.warmup());
+            }
+            result = driver.run(saturday, options.requests());
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+
+        int doubleBookings = DoubleBookingAudit.count(mongoTemplate, fixtures.capacities());
+        LoadReport report = new LoadReport(options, app.getEnvironment().getProperty("booking.availability.engine"),
+                result, doubleBookings);
+        report.print(out);
+        out.printf("  report          %s%n", report.write(Path.of("target")));
+        return doubleBookings > 0 ? 1 : 0;
+    }
+
+    // placeholders for the real infrastructure are overridden so none has to be set in the environment
+    private static String[] appArgs(LoadTestOptions options, String mongoUri) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--spring.rabbitmq.host=localhost",
+                "--spring.rabbitmq.port=5672",
+                "--spring.rabbitmq.username=guest",
+                "--spring.rabbitmq.password=guest",
+                "--management.health.rabbit.enabled=false",
+                "--eureka.client.enabled=false",
+                "--eureka.client.service-url.defaultZone=http://localhost:8761/eureka",
+                "--spring.cloud.discovery.enabled=false",
+                "--booking.cache.change-stream.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        // the seeded salons have several chairs, so the capacity engine runs unless another is given
+        if (options.appArgs().stream().noneMatch(arg -> arg.startsWith("--booking.availability.engine="))) {
+            args.add("--booking.availability.engine=capacity");
+        }
+        args.addAll(options.appArgs());
+        return args.toArray(new String[0]);
+    }
+}
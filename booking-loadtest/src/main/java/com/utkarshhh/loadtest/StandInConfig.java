@@ -0,0 +1,113 @@
+package com.utkarshhh.loadtest;
+
+import com.utkarshhh.client.SalonClient;
+import com.utkarshhh.client.ServiceClient;
+import com.utkarshhh.client.UserClient;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.dto.ServiceDTO;
+import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.mapper.SalonMapper;
+import com.utkarshhh.mapper.ServiceMapper;
+import com.utkarshhh.model.Salon;
+import com.utkarshhh.model.ServiceOffering;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Swaps booking-service's outside dependencies for in-process stand-ins
+ * once every bean definition is registered: the Feign clients for stubs
+ * that answer from the seeded Mongo collections, and the RabbitMQ template
+ * for {@link NoOpRabbitTemplate}. Replacing the definitions under their
+ * own names, rather than adding primary beans, keeps the Feign factories
+ * from ever starting.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StandInConfig {
+
+    @Bean
+    static BeanDefinitionRegistryPostProcessor standIns() {
+        return registry -> {
+            replace(registry, UserClient.class.getName(), new RootBeanDefinition(StubUserClient.class));
+            replace(registry, SalonClient.class.getName(), new RootBeanDefinition(StubSalonClient.class));
+            replace(registry, ServiceClient.class.getName(), new RootBeanDefinition(StubServiceClient.class));
+            replace(registry, "rabbitTemplate", new RootBeanDefinition(NoOpRabbitTemplate.class));
+        };
+    }
+
+    private static void replace(BeanDefinitionRegistry registry, String name, RootBeanDefinition standIn) {
+        if (registry.containsBeanDefinition(name)) {
+            registry.removeBeanDefinition(name);
+        }
+        registry.registerBeanDefinition(name, standIn);
+    }
+
+    static class StubUserClient implements UserClient {
+
+        @Override
+        public UserDTO getUser(String id) {
+            UserDTO user = new UserDTO();
+            user.setId(id);
+            user.setFullName("Load User " + id);
+            user.setEmail(id + "@loadtest.local");
+            return user;
+        }
+    }
+
+    static class StubSalonClient implements SalonClient {
+
+        private final MongoTemplate mongoTemplate;
+
+        StubSalonClient(MongoTemplate mongoTemplate) {
+            this.mongoTemplate = mongoTemplate;
+        }
+
+        @Override
+        public SalonDTO getSalon(String id) {
+            return SalonMapper.toDTO(mongoTemplate.findById(id, Salon.class));
+        }
+    }
+
+    static class StubServiceClient implements ServiceClient {
+
+        private final MongoTemplate mongoTemplate;
+
+        StubServiceClient(MongoTemplate mongoTemplate) {
+            this.mongoTemplate = mongoTemplate;
+        }
+
+        @Override
+        public ServiceDTO getService(String id) {
+            return ServiceMapper.toDTO(mongoTemplate.findById(id, ServiceOffering.class));
+        }
+
+        @Override
+        public Set<ServiceDTO> getServicesBySalon(String salonId, String categoryId) {
+            Criteria criteria = Criteria.where("salonId").is(salonId);
+            if (categoryId != null) {
+                criteria = criteria.and("categoryId").is(categoryId);
+            }
+            return toDTOs(mongoTemplate.find(new Query(criteria), ServiceOffering.class)).stream()
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+
+        @Override
+        public List<ServiceDTO> getServicesByIds(Set<String> ids) {
+            return toDTOs(mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), ServiceOffering.class));
+        }
+
+        private static List<ServiceDTO> toDTOs(List<ServiceOffering> offerings) {
+            return offerings.stream().map(ServiceMapper::toDTO).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.utkarshhh.config;
+
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.BookingSeries;
+import com.utkarshhh.model.IdempotencyRecord;
+import com.utkarshhh.model.SalonReportDaily;
+import com.utkarshhh.model.SeatClaim;
+import com.utkarshhh.model.SlotClaim;
+import com.utkarshhh.repository.BookingRepositoryCustom;
+import com.mongodb.MongoCommandException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+/**
+ * Auto index creation is disabled for this service, so the indexes declared
+ * on the entities below are ensured once the application is up. Runs off the
+ * startup thread, on a daemon, so an unreachable database neither holds up
+ * boot nor shutdown.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "booking.mongo.ensure-indexes", havingValue = "true", matchIfMissing = true)
+public class MongoIndexConfig {
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            Booking.class,
+            SlotClaim.class,
+            SeatClaim.class,
+            SalonReportDaily.class,
+            BookingSeries.class,
+            IdempotencyRecord.class
+    );
+
+    // an existing index with the same name was created with other options
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::ensureIndexes, "mongo-index-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(entity);
+                resolver.resolveIndexFor(entity).forEach(index -> ensureIndex(indexOps, index));
+                log.info("Ensured indexes for {}", entity.getSimpleName());
+            } catch (Exception e) {
+                log.error("Failed to ensure indexes for {}: {}", entity.getSimpleName(), e.getMessage());
+            }
+        }
+
+        // the archive holds Booking documents but is only read by id, by customer and by salon
+        try {
+            IndexOperations archiveOps = mongoTemplate.indexOps(BookingRepositoryCustom.ARCHIVE_COLLECTION);
+            archiveOps.ensureIndex(new Index().named("customer_start_id")
+                    .on("customerId", Sort.Direction.ASC)
+                    .on("startTime", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC));
+            archiveOps.ensureIndex(new Index().named("salon_start")
+                    .on("salonId", Sort.Direction.ASC).on("startTime", Sort.Direction.ASC));
+            log.info("Ensured indexes for {}", BookingRepositoryCustom.ARCHIVE_COLLECTION);
+        } catch (Exception e) {
+            log.error("Failed to ensure indexes for {}: {}", BookingRepositoryCustom.ARCHIVE_COLLECTION, e.getMessage());
+        }
+    }
+
+    /**
+     * Ensures the index, rebuilding it when a declaration was changed since
+     * the index was created under the same name.
+     */
+    private void ensureIndex(IndexOperations indexOps, IndexDefinition index) {
+        try {
+            indexOps.ensureIndex(index);
+        } catch (DataAccessException e) {
+            if (!(e.getMostSpecificCause() instanceof MongoCommandException command)
+                    || command.getErrorCode() != INDEX_OPTIONS_CONFLICT) {
+                throw e;
+            }
+            String name = index.getIndexOptions().getString("name");
+            log.info("Rebuilding index {} with its changed options", name);
+            indexOps.dropIndex(name);
+            indexOps.ensureIndex(index);
+        }
+    }
+}
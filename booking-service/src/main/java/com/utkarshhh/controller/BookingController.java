@@ -1,33 +1,52 @@
 package com.utkarshhh.controller;
+import com.mongodb.MongoException;
 import com.utkarshhh.client.SalonClient;
 import com.utkarshhh.client.ServiceClient;
 import com.utkarshhh.client.UserClient;
 import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.BookingView;
+import com.utkarshhh.domain.ExportFormat;
 import com.utkarshhh.domain.PaymentStatus;
+import com.utkarshhh.dto.BatchBookingRequest;
+import com.utkarshhh.dto.BatchBookingResultDTO;
 import com.utkarshhh.dto.BookingDTO;
+import com.utkarshhh.dto.BookingPageRequest;
 import com.utkarshhh.dto.BookingRequest;
+import com.utkarshhh.dto.DayAvailabilityDTO;
 import com.utkarshhh.dto.SalonDTO;
 import com.utkarshhh.dto.ServiceDTO;
 import com.utkarshhh.dto.UserDTO;
-import com.utkarshhh.dto.BookingNotificationDTO;
+import com.utkarshhh.exception.BookingTransitionException;
 import com.utkarshhh.mapper.BookingMapper;
-import com.utkarshhh.service.NotificationPublisher;
 import com.utkarshhh.model.Booking;
 import com.utkarshhh.model.SalonReport;
 import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.service.BookingExportService;
 import com.utkarshhh.service.BookingService;
+import com.utkarshhh.service.CustomerBackfillJob;
+import com.utkarshhh.service.IdempotencyService;
+import com.utkarshhh.service.SalonAnalyticsService;
+import com.utkarshhh.service.SalonReportRollupService;
 import com.utkarshhh.service.SalonService;
 import com.utkarshhh.service.ServiceOfferingService;
+import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -40,6 +59,11 @@ public class BookingController {
     private final SalonService salonService;
     private final ServiceOfferingService serviceOfferingService;
     private final BookingRepository bookingRepository;
+    private final SalonReportRollupService salonReportRollupService;
+    private final SalonAnalyticsService salonAnalyticsService;
+    private final BookingExportService bookingExportService;
+    private final CustomerBackfillJob customerBackfillJob;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
     private UserClient userClient;
@@ -50,53 +74,50 @@ public class BookingController {
     @Autowired
     private ServiceClient serviceClient;
 
-    @Autowired
-    private NotificationPublisher notificationPublisher;
+    @Value("${booking.batch.max-size:100}")
+    private int maxBatchSize;
 
     @PostMapping("/admin/migrate-all-bookings")
     public ResponseEntity<?> migrateAllBookings() {
         try {
-            List<Booking> allBookings = bookingRepository.findAll();
-            int fixed = 0;
-
-            for (Booking booking : allBookings) {
-                if (booking.getCustomerName() == null || booking.getCustomerEmail() == null) {
-                    try {
-                        UserDTO user = userClient.getUser(booking.getCustomerId());
-                        booking.setCustomerName(user.getFullName());
-                        booking.setCustomerEmail(user.getEmail());
-                        bookingRepository.save(booking);
-                        fixed++;
-                    } catch (Exception e) {
-                        System.err.println("Failed to fix booking: " + booking.getId());
-                    }
-                }
-            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(customerBackfillJob.start());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
 
-            return ResponseEntity.ok("Fixed " + fixed + " bookings");
+    @GetMapping("/admin/migrate-all-bookings/status")
+    public ResponseEntity<?> getMigrationStatus() {
+        try {
+            return ResponseEntity.ok(customerBackfillJob.status());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/admin/rebuild-report-rollups")
+    public ResponseEntity<?> rebuildReportRollups(@RequestParam(required = false) String salonId) {
+        try {
+            int rebuilt = salonReportRollupService.rebuild(salonId);
+            return ResponseEntity.ok("Rebuilt " + rebuilt + " report rollups");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
+
     @PutMapping("/{bookingId}/cancel")
     public ResponseEntity<?> cancelBooking(@PathVariable String bookingId) {
         try {
-
-            Booking booking = bookingService.getBookingById(bookingId);
-
-
-            if (booking.getStatus() == BookingStatus.CANCELLED) {
-                return ResponseEntity.badRequest().body("Booking is already cancelled");
-            }
-
-            if (booking.getStatus() == BookingStatus.COMPLETED) {
-                return ResponseEntity.badRequest().body("Cannot cancel a completed booking");
-            }
-
-
             Booking updated = bookingService.updateBooking(bookingId, BookingStatus.CANCELLED);
 
             return ResponseEntity.ok(updated);
+        } catch (BookingTransitionException e) {
+            String message = switch (e.getCurrentStatus()) {
+                case CANCELLED -> "Booking is already cancelled";
+                case COMPLETED -> "Cannot cancel a completed booking";
+                default -> e.getMessage();
+            };
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("Error cancelling booking: " + e.getMessage());
@@ -107,14 +128,21 @@ public class BookingController {
             @RequestBody BookingRequest bookingRequest,
             @RequestHeader("User-Id") String userId,
             @RequestHeader("User-Name") String userName,
-            @RequestHeader("User-Email") String userEmail) {
+            @RequestHeader("User-Email") String userEmail,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
-        try {
-            System.out.println("   Creating booking with:");
-            System.out.println("   User-Id: " + userId);
-            System.out.println("   User-Name: " + userName);
-            System.out.println("   User-Email: " + userEmail);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return createBooking(bookingRequest, userId, userName, userEmail);
+        }
+        return idempotencyService.execute(userId, idempotencyKey, bookingRequest,
+                () -> createBooking(bookingRequest, userId, userName, userEmail));
+    }
 
+    private ResponseEntity<?> createBooking(BookingRequest bookingRequest,
+                                            String userId,
+                                            String userName,
+                                            String userEmail) {
+        try {
             UserDTO userDTO = new UserDTO();
             userDTO.setId(userId);
             userDTO.setFullName(userName);
@@ -122,11 +150,7 @@ public class BookingController {
 
             SalonDTO salonDTO = salonService.getSalonById(bookingRequest.getSalonId());
 
-            Set<ServiceDTO> serviceDTOSet = new HashSet<>();
-            for (String serviceId : bookingRequest.getServiceIds()) {
-                ServiceDTO serviceDTO = serviceOfferingService.getServiceById(serviceId);
-                serviceDTOSet.add(serviceDTO);
-            }
+            Set<ServiceDTO> serviceDTOSet = serviceOfferingService.getServicesByIds(bookingRequest.getServiceIds());
 
             Booking booking = new Booking();
             booking.setStartTime(bookingRequest.getStartTime());
@@ -137,52 +161,114 @@ public class BookingController {
 
             Booking createdBooking = bookingService.createBooking(booking, userDTO, salonDTO, serviceDTOSet);
 
-            try {
-                String serviceNames = serviceDTOSet.stream()
-                        .map(ServiceDTO::getName)
-                        .collect(Collectors.joining(", "));
-
-                BookingNotificationDTO notification = new BookingNotificationDTO(
-                        createdBooking.getId().toString(),
-                        userEmail,
-                        userName,
-                        salonDTO.getName(),
-                        serviceNames,
-                        createdBooking.getStartTime().toString(),
-                        createdBooking.getTotalPrice()
-                );
-
-                notificationPublisher.sendBookingNotification(notification);
-                System.out.println("Notification sent!");
-            } catch (Exception e) {
-                System.err.println("Notification failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdBooking);
+        } catch (DataAccessException | MongoException | FeignException e) {
+            // database or salon-service trouble: a 5xx, so an idempotent retry runs again
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBookings(
+            @RequestBody BatchBookingRequest batchRequest,
+            @RequestHeader("User-Id") String userId,
+            @RequestHeader("User-Name") String userName,
+            @RequestHeader("User-Email") String userEmail) {
+        try {
+            List<BookingRequest> requests = batchRequest.getBookings();
+            if (batchRequest.getSalonId() == null || requests == null || requests.isEmpty()) {
+                return ResponseEntity.badRequest().body("salonId and at least one booking are required");
+            }
+            if (requests.size() > maxBatchSize) {
+                return ResponseEntity.badRequest().body("At most " + maxBatchSize + " bookings per batch");
             }
 
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdBooking);
+            UserDTO userDTO = new UserDTO();
+            userDTO.setId(userId);
+            userDTO.setFullName(userName);
+            userDTO.setEmail(userEmail);
+
+            SalonDTO salonDTO = salonService.getSalonById(batchRequest.getSalonId());
+            Set<String> serviceIds = requests.stream()
+                    .filter(request -> request.getServiceIds() != null)
+                    .flatMap(request -> request.getServiceIds().stream())
+                    .collect(Collectors.toSet());
+            Map<String, ServiceDTO> services = serviceIds.isEmpty()
+                    ? Map.of()
+                    : serviceOfferingService.findServicesByIds(serviceIds);
+
+            List<BatchBookingResultDTO> results = bookingService.createBookings(salonDTO, userDTO, requests, services, null);
+
+            return ResponseEntity.ok(results);
         } catch (Exception e) {
-            e.printStackTrace();
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
 
     @GetMapping("/customer")
-    public ResponseEntity<?> getBookingsByCustomer(@RequestParam String customerId) {
+    public ResponseEntity<?> getBookingsByCustomer(
+            @RequestParam String customerId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<Booking> bookings = bookingService.getBookingsByCustomer(customerId);
+            BookingView bookingView = bookingView(view);
+            if (limit != null || cursor != null || status != null || from != null || to != null) {
+                BookingPageRequest pageRequest = pageRequest(limit, cursor, status, from, to);
+                pageRequest.setCustomerId(customerId);
+                pageRequest.setView(bookingView);
+                pageRequest.setIncludeArchived(includeArchived);
+                return ResponseEntity.ok(bookingService.getBookingPage(pageRequest));
+            }
+
+            if (bookingView == BookingView.SUMMARY) {
+                return ResponseEntity.ok(bookingService.getBookingSummariesByCustomer(customerId, includeArchived));
+            }
+
+            List<Booking> bookings = bookingService.getBookingsByCustomer(customerId, includeArchived);
 
             List<BookingDTO> bookingDTOs = bookings.stream()
                     .map(BookingMapper::toDTO)
                     .collect(Collectors.toList());
 
             return ResponseEntity.ok(bookingDTOs);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
     @GetMapping("/salon")
-    public ResponseEntity<?> getBookingsBySalon(@RequestParam String salonId) {
+    public ResponseEntity<?> getBookingsBySalon(
+            @RequestParam String salonId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "full") String view) {
         try {
+            BookingView bookingView = bookingView(view);
+            if (limit != null || cursor != null || status != null || from != null || to != null) {
+                BookingPageRequest pageRequest = pageRequest(limit, cursor, status, from, to);
+                pageRequest.setSalonId(salonId);
+                pageRequest.setView(bookingView);
+                return ResponseEntity.ok(bookingService.getBookingPage(pageRequest));
+            }
+
+            if (bookingView == BookingView.SUMMARY) {
+                return ResponseEntity.ok(bookingService.getBookingSummariesBySalon(salonId));
+            }
+
             List<Booking> bookings = bookingService.getBookingBySalon(salonId);
 
             List<BookingDTO> bookingDTOs = bookings.stream()
@@ -190,26 +276,101 @@ public class BookingController {
                     .collect(Collectors.toList());
 
             return ResponseEntity.ok(bookingDTOs);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
+    @GetMapping("/salon/{salonId}/export")
+    public ResponseEntity<?> exportSalonBookings(
+            @PathVariable String salonId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unsupported export format: " + format);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("'from' must not be after 'to'");
+        }
+
+        StreamingResponseBody body = out -> bookingExportService.export(salonId, from, to, exportFormat, out);
+        String extension = exportFormat == ExportFormat.CSV ? "csv" : "ndjson";
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ExportFormat.CSV
+                        ? MediaType.parseMediaType("text/csv")
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bookings-" + salonId + "." + extension + "\"")
+                .body(body);
+    }
+
+    private BookingView bookingView(String view) {
+        try {
+            return BookingView.valueOf(view.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported view: " + view);
+        }
+    }
+
+    private BookingPageRequest pageRequest(Integer limit, String cursor, BookingStatus status,
+                                           LocalDate from, LocalDate to) {
+        BookingPageRequest pageRequest = new BookingPageRequest();
+        pageRequest.setLimit(limit);
+        pageRequest.setCursor(cursor);
+        pageRequest.setStatus(status);
+        pageRequest.setFrom(from);
+        pageRequest.setTo(to);
+        return pageRequest;
+    }
+
     @GetMapping("/report")
-    public ResponseEntity<?> getSalonReport(@RequestParam String salonId) {
+    public ResponseEntity<?> getSalonReport(
+            @RequestParam String salonId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         try {
-            SalonReport report = bookingService.getSalonReport(salonId);
+            SalonReport report = bookingService.getSalonReport(salonId, from, to);
             return ResponseEntity.ok(report);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
+    @GetMapping("/report/analytics")
+    public ResponseEntity<?> getSalonAnalytics(
+            @RequestParam String salonId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate rangeEnd = to != null ? to : LocalDate.now();
+            LocalDate rangeStart = from != null ? from : rangeEnd.minusDays(29);
+            if (rangeStart.isAfter(rangeEnd)) {
+                return ResponseEntity.badRequest().body("'from' must not be after 'to'");
+            }
+
+            return ResponseEntity.ok(salonAnalyticsService.getAnalytics(salonId, rangeStart, rangeEnd));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     @GetMapping("/slots/salon/{salonId}/date/{date}")
     public ResponseEntity<?> getBookingsByDate(
             @PathVariable String salonId,
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date) {
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+            @RequestParam(defaultValue = "full") String view) {
         try {
+            if (bookingView(view) == BookingView.SUMMARY) {
+                return ResponseEntity.ok(bookingService.getBookingSummariesByDate(date, salonId));
+            }
+
             List<Booking> bookings = bookingService.getBookingByDate(date,salonId);
 
             List<BookingDTO> bookingDTOs = bookings.stream()
@@ -217,6 +378,41 @@ public class BookingController {
                     .collect(Collectors.toList());
 
             return ResponseEntity.ok(bookingDTOs);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/slots/salon/{salonId}/date/{date}/available")
+    public ResponseEntity<?> getAvailableSlots(
+            @PathVariable String salonId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam int duration) {
+        try {
+            if (duration <= 0) {
+                return ResponseEntity.badRequest().body("Duration must be positive");
+            }
+
+            SalonDTO salonDTO = salonService.getSalonById(salonId);
+            List<LocalDateTime> slots = bookingService.getAvailableSlots(salonDTO, date, duration);
+
+            return ResponseEntity.ok(slots);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/slots/salon/{salonId}/month/{month}")
+    public ResponseEntity<?> getMonthAvailability(
+            @PathVariable String salonId,
+            @PathVariable YearMonth month) {
+        try {
+            SalonDTO salonDTO = salonService.getSalonById(salonId);
+            List<DayAvailabilityDTO> days = bookingService.getMonthAvailability(salonDTO, month);
+
+            return ResponseEntity.ok(days);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
@@ -241,6 +437,8 @@ public class BookingController {
             Booking updatedBooking = bookingService.updateBooking(bookingId, status);
 
             return ResponseEntity.ok(BookingMapper.toDTO(updatedBooking));
+        } catch (BookingTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -251,18 +449,11 @@ public class BookingController {
             @PathVariable String bookingId,
             @RequestParam PaymentStatus paymentStatus) {
         try {
-            Booking booking = bookingService.getBookingById(bookingId);
-            booking.setPaymentStatus(paymentStatus);
-
-            if (paymentStatus == PaymentStatus.PAID) {
-                booking.setStatus(BookingStatus.CONFIRM);
-            } else if (paymentStatus == PaymentStatus.FAILED) {
-                booking.setStatus(BookingStatus.CANCELLED);
-            }
-
-            Booking updatedBooking = bookingRepository.save(booking);
+            Booking updatedBooking = bookingService.updatePaymentStatus(bookingId, paymentStatus);
 
             return ResponseEntity.ok(BookingMapper.toDTO(updatedBooking));
+        } catch (BookingTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
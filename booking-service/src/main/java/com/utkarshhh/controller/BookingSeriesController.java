@@ -0,0 +1,68 @@
+package com.utkarshhh.controller;
+
+import com.utkarshhh.dto.BookingSeriesRequest;
+import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.model.BookingSeries;
+import com.utkarshhh.service.BookingSeriesService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/bookings/series")
+@RequiredArgsConstructor
+public class BookingSeriesController {
+
+    private final BookingSeriesService bookingSeriesService;
+
+    @PostMapping
+    public ResponseEntity<?> createSeries(
+            @RequestBody BookingSeriesRequest request,
+            @RequestHeader("User-Id") String userId,
+            @RequestHeader("User-Name") String userName,
+            @RequestHeader("User-Email") String userEmail) {
+        try {
+            UserDTO userDTO = new UserDTO();
+            userDTO.setId(userId);
+            userDTO.setFullName(userName);
+            userDTO.setEmail(userEmail);
+
+            BookingSeries series = bookingSeriesService.createSeries(request, userDTO);
+            return ResponseEntity.status(HttpStatus.CREATED).body(series);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{seriesId}")
+    public ResponseEntity<?> getSeries(@PathVariable String seriesId) {
+        try {
+            return ResponseEntity.ok(bookingSeriesService.getSeries(seriesId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getSeriesByCustomer(@RequestParam String customerId) {
+        try {
+            List<BookingSeries> series = bookingSeriesService.getSeriesByCustomer(customerId);
+            return ResponseEntity.ok(series);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/{seriesId}/cancel")
+    public ResponseEntity<?> cancelSeries(@PathVariable String seriesId,
+                                          @RequestHeader("User-Id") String userId) {
+        try {
+            return ResponseEntity.ok(bookingSeriesService.cancelSeries(seriesId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+}
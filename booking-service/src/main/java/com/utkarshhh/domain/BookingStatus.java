@@ -1,7 +1,23 @@
 package com.utkarshhh.domain;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
     PENDING,
     CONFIRM,
-    COMPLETED, CANCELLED
-}
\ No newline at end of file
+    COMPLETED, CANCELLED;
+
+    /**
+     * Statuses a booking may move to this one from. Completed and cancelled
+     * bookings are final.
+     */
+    public Set<BookingStatus> allowedSources() {
+        return switch (this) {
+            case PENDING -> EnumSet.noneOf(BookingStatus.class);
+            case CONFIRM -> EnumSet.of(PENDING);
+            case COMPLETED -> EnumSet.of(CONFIRM);
+            case CANCELLED -> EnumSet.of(PENDING, CONFIRM);
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.utkarshhh.domain;
+
+public enum JobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED,
+}
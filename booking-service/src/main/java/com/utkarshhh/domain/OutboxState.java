@@ -0,0 +1,6 @@
+package com.utkarshhh.domain;
+
+public enum OutboxState {
+    PENDING,
+    SENT,
+}
@@ -1,7 +1,36 @@
 package com.utkarshhh.domain;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum PaymentStatus {
     PENDING,
     PAID,
     FAILED,
+    // paid after the booking was cancelled and its slot taken; the money is owed back
+    REFUND_DUE;
+
+    /**
+     * Payment statuses a booking may move to this one from. A payment is
+     * settled once, so paid and failed bookings do not change again. A due
+     * refund is only ever recorded by the booking service itself.
+     */
+    public Set<PaymentStatus> allowedSources() {
+        return switch (this) {
+            case PENDING, REFUND_DUE -> EnumSet.noneOf(PaymentStatus.class);
+            case PAID, FAILED -> EnumSet.of(PENDING);
+        };
+    }
+
+    /**
+     * The booking status a payment result moves the booking to, or null when
+     * it leaves the booking status alone.
+     */
+    public BookingStatus bookingStatus() {
+        return switch (this) {
+            case PENDING, REFUND_DUE -> null;
+            case PAID -> BookingStatus.CONFIRM;
+            case FAILED -> BookingStatus.CANCELLED;
+        };
+    }
 }
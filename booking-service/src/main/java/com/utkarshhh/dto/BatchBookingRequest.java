@@ -0,0 +1,11 @@
+package com.utkarshhh.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchBookingRequest {
+    private String salonId;
+    private List<BookingRequest> bookings;
+}
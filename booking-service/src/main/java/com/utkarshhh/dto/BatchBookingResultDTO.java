@@ -0,0 +1,11 @@
+package com.utkarshhh.dto;
+
+import lombok.Data;
+
+@Data
+public class BatchBookingResultDTO {
+    private int index;
+    private boolean created;
+    private BookingDTO booking;
+    private String error;
+}
@@ -24,4 +24,6 @@ public class BookingDTO {
     private PaymentStatus paymentStatus = PaymentStatus.PENDING;
     private String paymentMethod;
     private int totalPrice;
+    private String seriesId;
+    private LocalDateTime holdExpiresAt;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.utkarshhh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.utkarshhh.dto;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.BookingView;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class BookingPageRequest {
+    private String customerId;
+    private String salonId;
+    private BookingStatus status;
+    private LocalDate from;
+    private LocalDate to;
+    private String cursor;
+    private Integer limit;
+    private BookingView view = BookingView.FULL;
+    private boolean includeArchived;
+}
@@ -11,4 +11,8 @@ public class BookingRequest {
     private Set<String> serviceIds;
     private String paymentMethod;
     private String salonId;
+    // set by the salon owner's front-desk batch requests booking on behalf of a customer
+    private String customerId;
+    private String customerName;
+    private String customerEmail;
 }
\ No newline at end of file
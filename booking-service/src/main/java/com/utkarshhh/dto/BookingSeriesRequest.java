@@ -0,0 +1,18 @@
+package com.utkarshhh.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+public class BookingSeriesRequest {
+    private String salonId;
+    private Set<String> serviceIds;
+    private LocalDateTime startTime;
+    private int intervalWeeks = 1;
+    private LocalDate until;
+    private Integer count;
+    private String paymentMethod;
+}
@@ -0,0 +1,23 @@
+package com.utkarshhh.dto;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.PaymentStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slim list row read straight from a Mongo field projection; carries none
+ * of the customer contact, payment method or service id fields.
+ */
+@Data
+public class BookingSummaryDTO {
+
+    private String id;
+    private String salonId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private BookingStatus status;
+    private PaymentStatus paymentStatus;
+    private int totalPrice;
+}
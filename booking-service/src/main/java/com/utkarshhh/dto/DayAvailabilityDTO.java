@@ -0,0 +1,16 @@
+package com.utkarshhh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayAvailabilityDTO {
+    private LocalDate date;
+    private int freeMinutes;
+    private int largestGapMinutes;
+}
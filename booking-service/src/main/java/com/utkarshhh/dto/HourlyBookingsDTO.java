@@ -0,0 +1,13 @@
+package com.utkarshhh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlyBookingsDTO {
+    private int hour;
+    private int bookings;
+}
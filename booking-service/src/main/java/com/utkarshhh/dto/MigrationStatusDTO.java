@@ -0,0 +1,21 @@
+package com.utkarshhh.dto;
+
+import com.utkarshhh.domain.JobStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class MigrationStatusDTO {
+    private JobStatus status;
+    private boolean active;
+    private String lastBookingId;
+    private long scanned;
+    private long fixed;
+    private long failed;
+    private double bookingsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.utkarshhh.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class SalonAnalyticsDTO {
+    private String salonId;
+    private LocalDate from;
+    private LocalDate to;
+    private int totalBookings;
+    private int cancelledBookings;
+    private double cancellationRate;
+    private List<ServiceRevenueDTO> revenueByService;
+    private List<HourlyBookingsDTO> bookingsByHour;
+}
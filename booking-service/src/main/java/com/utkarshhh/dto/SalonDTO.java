@@ -21,4 +21,7 @@ public class SalonDTO {
     private Long ownerId;
     private LocalTime openTime;
     private LocalTime closeTime;
+    private Integer holdMinutes;
+    private Integer chairCount;
+    private List<StylistHoursDTO> stylists;
 }
\ No newline at end of file
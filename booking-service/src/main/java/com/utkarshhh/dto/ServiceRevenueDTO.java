@@ -0,0 +1,15 @@
+package com.utkarshhh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceRevenueDTO {
+    private String serviceId;
+    private String serviceName;
+    private int bookings;
+    private long revenue;
+}
@@ -0,0 +1,12 @@
+package com.utkarshhh.dto;
+
+import lombok.Data;
+
+import java.time.LocalTime;
+
+@Data
+public class StylistHoursDTO {
+    private String name;
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
@@ -0,0 +1,40 @@
+package com.utkarshhh.exception;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.PaymentStatus;
+import lombok.Getter;
+
+/**
+ * A status or payment-status change that was refused because the booking's
+ * current status or payment status does not allow it, either as requested or
+ * because a concurrent update got there first.
+ */
+@Getter
+public class BookingTransitionException extends RuntimeException {
+
+    private final String bookingId;
+    private final BookingStatus currentStatus;
+    private final BookingStatus requestedStatus;
+    private final PaymentStatus currentPaymentStatus;
+    private final PaymentStatus requestedPaymentStatus;
+
+    public BookingTransitionException(String bookingId, BookingStatus currentStatus, BookingStatus requestedStatus) {
+        super("Cannot change booking " + bookingId + " from " + currentStatus + " to " + requestedStatus);
+        this.bookingId = bookingId;
+        this.currentStatus = currentStatus;
+        this.requestedStatus = requestedStatus;
+        this.currentPaymentStatus = null;
+        this.requestedPaymentStatus = null;
+    }
+
+    public BookingTransitionException(String bookingId, BookingStatus currentStatus,
+                                      PaymentStatus currentPaymentStatus, PaymentStatus requestedPaymentStatus) {
+        super("Cannot change payment of " + currentStatus + " booking " + bookingId + " from "
+                + currentPaymentStatus + " to " + requestedPaymentStatus);
+        this.bookingId = bookingId;
+        this.currentStatus = currentStatus;
+        this.requestedStatus = requestedPaymentStatus.bookingStatus();
+        this.currentPaymentStatus = currentPaymentStatus;
+        this.requestedPaymentStatus = requestedPaymentStatus;
+    }
+}
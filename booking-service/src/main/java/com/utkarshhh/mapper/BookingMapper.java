@@ -23,6 +23,8 @@ public class BookingMapper {
         bookingDTO.setPaymentStatus(booking.getPaymentStatus());
         bookingDTO.setPaymentMethod(booking.getPaymentMethod());
         bookingDTO.setTotalPrice(booking.getTotalPrice());
+        bookingDTO.setSeriesId(booking.getSeriesId());
+        bookingDTO.setHoldExpiresAt(booking.getHoldExpiresAt());
 
         return bookingDTO;
     }
@@ -45,6 +47,8 @@ public class BookingMapper {
         booking.setPaymentStatus(bookingDTO.getPaymentStatus());
         booking.setPaymentMethod(bookingDTO.getPaymentMethod());
         booking.setTotalPrice(bookingDTO.getTotalPrice());
+        booking.setSeriesId(bookingDTO.getSeriesId());
+        booking.setHoldExpiresAt(bookingDTO.getHoldExpiresAt());
 
         return booking;
     }
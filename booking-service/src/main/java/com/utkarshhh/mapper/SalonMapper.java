@@ -1,9 +1,12 @@
 package com.utkarshhh.mapper;
 
 import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.dto.StylistHoursDTO;
 import com.utkarshhh.model.Salon;
+import com.utkarshhh.model.StylistHours;
 
 import java.util.Collections;
+import java.util.stream.Collectors;
 
 public class SalonMapper {
 
@@ -22,6 +25,11 @@ public class SalonMapper {
         salonDTO.setCity(salon.getCity());
         salonDTO.setOpenTime(salon.getOpenTime());
         salonDTO.setCloseTime(salon.getCloseTime());
+        salonDTO.setHoldMinutes(salon.getHoldMinutes());
+        salonDTO.setChairCount(salon.getChairCount());
+        salonDTO.setStylists(salon.getStylists() == null ? null : salon.getStylists().stream()
+                .map(SalonMapper::toDTO)
+                .collect(Collectors.toList()));
 
         return salonDTO;
     }
@@ -41,7 +49,28 @@ public class SalonMapper {
         salon.setCity(salonDTO.getCity());
         salon.setOpenTime(salonDTO.getOpenTime());
         salon.setCloseTime(salonDTO.getCloseTime());
+        salon.setHoldMinutes(salonDTO.getHoldMinutes());
+        salon.setChairCount(salonDTO.getChairCount());
+        salon.setStylists(salonDTO.getStylists() == null ? null : salonDTO.getStylists().stream()
+                .map(SalonMapper::toEntity)
+                .collect(Collectors.toList()));
 
         return salon;
     }
+
+    public static StylistHoursDTO toDTO(StylistHours stylist) {
+        StylistHoursDTO dto = new StylistHoursDTO();
+        dto.setName(stylist.getName());
+        dto.setStartTime(stylist.getStartTime());
+        dto.setEndTime(stylist.getEndTime());
+        return dto;
+    }
+
+    public static StylistHours toEntity(StylistHoursDTO dto) {
+        StylistHours stylist = new StylistHours();
+        stylist.setName(dto.getName());
+        stylist.setStartTime(dto.getStartTime());
+        stylist.setEndTime(dto.getEndTime());
+        return stylist;
+    }
 }
\ No newline at end of file
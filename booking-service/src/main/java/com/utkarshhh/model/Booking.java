@@ -1,16 +1,29 @@
 package com.utkarshhh.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.utkarshhh.domain.BookingStatus;
 import com.utkarshhh.domain.PaymentStatus;
 import lombok.Data;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Data
 @Document(collection = "booking")
+@CompoundIndexes({
+        @CompoundIndex(name = "salon_start_end_status", def = "{'salonId': 1, 'startTime': 1, 'endTime': 1, 'status': 1}"),
+        @CompoundIndex(name = "salon_start_id", def = "{'salonId': 1, 'startTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "customer_start_id", def = "{'customerId': 1, 'startTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "series_start", def = "{'seriesId': 1, 'startTime': 1}"),
+        @CompoundIndex(name = "outbox_pending", def = "{'outbox.nextAttemptAt': 1}",
+                partialFilter = "{'outbox.state': 'PENDING'}"),
+        @CompoundIndex(name = "hold_expiry", def = "{'holdExpiresAt': 1}",
+                partialFilter = "{'status': 'PENDING'}")
+})
 public class Booking {
     @Id
     private String id;
@@ -25,4 +38,10 @@ public class Booking {
     private PaymentStatus paymentStatus = PaymentStatus.PENDING;
     private String paymentMethod;
     private int totalPrice;
+    private String seriesId;
+    private LocalDateTime holdExpiresAt;
+    // set when the hold lapsed unpaid and cancelled the booking
+    private LocalDateTime expiredAt;
+    @JsonIgnore
+    private OutboxMessage outbox;
 }
\ No newline at end of file
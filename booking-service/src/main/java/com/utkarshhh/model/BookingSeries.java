@@ -0,0 +1,47 @@
+package com.utkarshhh.model;
+
+import com.utkarshhh.domain.SeriesStatus;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A recurring appointment: occurrence {@code n} starts at
+ * {@code firstStart + n * intervalWeeks} weeks and the series ends after
+ * {@code until} or {@code count} occurrences, whichever comes first.
+ * Occurrences are materialized as bookings up to {@code expandedUntil};
+ * {@code nextOccurrence} is the first one not yet expanded.
+ */
+@Data
+@Document(collection = "booking_series")
+@CompoundIndex(name = "status_expanded_until", def = "{'status': 1, 'expandedUntil': 1}")
+public class BookingSeries {
+    @Id
+    private String id;
+    private String salonId;
+    @Indexed
+    private String customerId;
+    private String customerName;
+    private String customerEmail;
+    private Set<String> serviceIds;
+    private String paymentMethod;
+    private LocalDateTime firstStart;
+    private int intervalWeeks = 1;
+    private LocalDate until;
+    private Integer count;
+    private SeriesStatus status = SeriesStatus.ACTIVE;
+    private int nextOccurrence;
+    private LocalDateTime expandedUntil;
+    private LocalDateTime leaseUntil;
+    private int created;
+    private List<SeriesConflict> conflicts = new ArrayList<>();
+    private LocalDateTime createdAt;
+}
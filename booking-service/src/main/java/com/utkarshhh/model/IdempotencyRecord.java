@@ -0,0 +1,32 @@
+package com.utkarshhh.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored outcome of a request made with an Idempotency-Key. The id is
+ * {@code userId:key}; the record is written IN_PROGRESS before the request
+ * runs, so the unique id decides which of several concurrent duplicates
+ * executes, and expires through a TTL index on {@code createdAt}.
+ */
+@Data
+@Document(collection = "booking_idempotency")
+public class IdempotencyRecord {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    private String id;
+    private String state;
+    private String requestHash;
+    private int httpStatus;
+    private String contentType;
+    private String body;
+    @Indexed(name = "created_ttl", expireAfter = "24h")
+    private LocalDateTime createdAt;
+}
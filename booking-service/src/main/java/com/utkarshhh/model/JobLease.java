@@ -0,0 +1,20 @@
+package com.utkarshhh.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks which instance runs a singleton background job until
+ * {@code leaseUntil}; another instance may take over once it lapses.
+ */
+@Data
+@Document(collection = "booking_job_lease")
+public class JobLease {
+    @Id
+    private String id;
+    private String owner;
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,31 @@
+package com.utkarshhh.model;
+
+import com.utkarshhh.domain.JobStatus;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a background data migration, saved after every batch. The id
+ * is the job name; {@code lastBookingId} is the highest booking id already
+ * processed, so a restarted job continues right after it. Jobs that walk
+ * salons instead record {@code lastSalonId}.
+ */
+@Data
+@Document(collection = "booking_migration_checkpoint")
+public class MigrationCheckpoint {
+    @Id
+    private String id;
+    private JobStatus status;
+    private String lastBookingId;
+    private String lastSalonId;
+    private long scanned;
+    private long fixed;
+    private long failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,31 @@
+package com.utkarshhh.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Occupied 5-minute granules of one salon day packed into five 64-bit words
+ * (288 granules). The id is {@code salonId:yyyy-MM-dd}, so every read is a
+ * point lookup.
+ */
+@Data
+@Document(collection = "booking_occupancy_day")
+public class OccupancyDay {
+    @Id
+    private String id;
+    private String salonId;
+    private LocalDate date;
+    private long w0;
+    private long w1;
+    private long w2;
+    private long w3;
+    private long w4;
+    private boolean seeded;
+
+    public long[] words() {
+        return new long[]{w0, w1, w2, w3, w4};
+    }
+}
@@ -0,0 +1,22 @@
+package com.utkarshhh.model;
+
+import com.utkarshhh.domain.OutboxState;
+import com.utkarshhh.dto.BookingNotificationDTO;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting to be published, embedded in the booking it
+ * belongs to so both are written by the same single-document insert.
+ */
+@Data
+public class OutboxMessage {
+    private String exchange;
+    private String routingKey;
+    private BookingNotificationDTO payload;
+    private OutboxState state = OutboxState.PENDING;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime sentAt;
+}
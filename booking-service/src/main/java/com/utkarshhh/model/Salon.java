@@ -22,4 +22,7 @@ public class Salon {
     private Long ownerId;
     private LocalTime openTime;
     private LocalTime closeTime;
+    private Integer holdMinutes;
+    private Integer chairCount;
+    private List<StylistHours> stylists;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.utkarshhh.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Running report totals for one salon and booking date (the date of
+ * {@code startTime}). Maintained with $inc as bookings are created and
+ * change status; the id is {@code salonId:yyyy-MM-dd}. Every increment also
+ * bumps {@code version}, so a rebuild can tell that a day changed while it
+ * was being recomputed.
+ */
+@Data
+@Document(collection = "salon_report_daily")
+@CompoundIndex(name = "salon_date", def = "{'salonId': 1, 'date': 1}")
+public class SalonReportDaily {
+    @Id
+    private String id;
+    private String salonId;
+    private LocalDate date;
+    private long totalEarnings;
+    private int totalBooking;
+    private int cancelledBooking;
+    private long totalRefund;
+    private long version;
+}
@@ -0,0 +1,41 @@
+package com.utkarshhh.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One of a multi-chair salon's seats in one granule. The id is built from
+ * (salonId, granule, seat), so the _id index alone keeps a seat from being
+ * claimed twice. Like slot claims, seat claims expire a day after their
+ * granule has passed.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "booking_seat_claim")
+@CompoundIndex(name = "salon_granule", def = "{'salonId': 1, 'granule': 1}")
+public class SeatClaim {
+    @Id
+    private String id;
+    private String salonId;
+    @Indexed(name = "granule_ttl", expireAfter = "1d")
+    private LocalDateTime granule;
+    private int seat;
+    @Indexed
+    private String bookingId;
+    private LocalDateTime createdAt;
+
+    public SeatClaim(String salonId, LocalDateTime granule, int seat, String bookingId, LocalDateTime createdAt) {
+        this.id = salonId + "|" + granule + "|" + seat;
+        this.salonId = salonId;
+        this.granule = granule;
+        this.seat = seat;
+        this.bookingId = bookingId;
+        this.createdAt = createdAt;
+    }
+}
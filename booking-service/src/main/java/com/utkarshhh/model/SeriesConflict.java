@@ -0,0 +1,15 @@
+package com.utkarshhh.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesConflict {
+    private LocalDateTime startTime;
+    private String reason;
+}
@@ -0,0 +1,33 @@
+package com.utkarshhh.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Document(collection = "booking_slot_claim")
+@CompoundIndex(name = "salon_granule_unique", def = "{'salonId': 1, 'granule': 1}", unique = true)
+public class SlotClaim {
+    @Id
+    private String id;
+    private String salonId;
+    // the day's margin covers the zone offset LocalDateTime is stored with
+    @Indexed(name = "granule_ttl", expireAfter = "1d")
+    private LocalDateTime granule;
+    @Indexed
+    private String bookingId;
+    private LocalDateTime createdAt;
+
+    public SlotClaim(String salonId, LocalDateTime granule, String bookingId, LocalDateTime createdAt) {
+        this.salonId = salonId;
+        this.granule = granule;
+        this.bookingId = bookingId;
+        this.createdAt = createdAt;
+    }
+}
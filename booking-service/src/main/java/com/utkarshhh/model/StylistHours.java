@@ -0,0 +1,12 @@
+package com.utkarshhh.model;
+
+import lombok.Data;
+
+import java.time.LocalTime;
+
+@Data
+public class StylistHours {
+    private String name;
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
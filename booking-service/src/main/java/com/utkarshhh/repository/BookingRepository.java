@@ -1,13 +1,44 @@
 package com.utkarshhh.repository;
 
+import com.utkarshhh.dto.BookingSummaryDTO;
 import com.utkarshhh.model.Booking;
 import com.utkarshhh.model.SalonReport;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
-public interface BookingRepository extends MongoRepository<Booking, String> {
+public interface BookingRepository extends MongoRepository<Booking, String>, BookingRepositoryCustom {
+
+    // non-cancelled bookings overlapping [?1, ?2), leaving out PENDING holds that lapsed before ?3.
+    // A booking lies within one opening, so it ends less than a day after it starts; bounding
+    // startTime from below keeps the salon_start_end_status range to the window, not all history.
+    String ACTIVE_OVERLAPPING = "{ 'salonId': ?0, 'startTime': { $gt: ?#{[1].minusDays(1)}, $lt: ?2 },"
+            + " 'endTime': { $gt: ?1 }, 'status': { $ne: 'CANCELLED' },"
+            + " $or: [ { 'status': { $ne: 'PENDING' } }, { 'holdExpiresAt': null }, { 'holdExpiresAt': { $gt: ?3 } } ] }";
+
+    String SUMMARY_FIELDS = "{ 'salonId': 1, 'startTime': 1, 'endTime': 1, 'status': 1, 'paymentStatus': 1, 'totalPrice': 1 }";
+
     List<Booking> findByCustomerId(String customerId);
     List<Booking> findBySalonId(String salonId);
-}
\ No newline at end of file
+
+    @Query(value = "{ 'customerId': ?0 }", fields = SUMMARY_FIELDS)
+    List<BookingSummaryDTO> findSummariesByCustomerId(String customerId);
+
+    @Query(value = "{ 'salonId': ?0 }", fields = SUMMARY_FIELDS)
+    List<BookingSummaryDTO> findSummariesBySalonId(String salonId);
+
+    @Query(ACTIVE_OVERLAPPING)
+    List<Booking> findActiveBySalonIdOverlapping(String salonId, LocalDateTime start, LocalDateTime end, LocalDateTime now);
+
+    @Query(value = ACTIVE_OVERLAPPING, fields = SUMMARY_FIELDS)
+    List<BookingSummaryDTO> findActiveSummariesBySalonIdOverlapping(String salonId, LocalDateTime start, LocalDateTime end,
+                                                                    LocalDateTime now);
+
+    @Query(value = ACTIVE_OVERLAPPING, fields = SUMMARY_FIELDS)
+    List<BookingSummaryDTO> findActiveSummariesBySalonIdOverlapping(String salonId, LocalDateTime start, LocalDateTime end,
+                                                                    LocalDateTime now, Sort sort);
+}
@@ -0,0 +1,57 @@
+package com.utkarshhh.repository;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.PaymentStatus;
+import com.utkarshhh.dto.BookingPageRequest;
+import com.utkarshhh.dto.BookingSummaryDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.util.BookingCursor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface BookingRepositoryCustom {
+
+    // finished bookings moved out of the hot collection by BookingArchiver
+    String ARCHIVE_COLLECTION = "booking_archive";
+
+    /**
+     * One keyset page in (startTime, id) order. With
+     * {@code request.includeArchived} the archive is read with the same
+     * filter and merged in.
+     */
+    List<Booking> findPage(BookingPageRequest request, BookingCursor after, int limit);
+
+    /**
+     * Same filter and order as {@link #findPage}, reading only the fields of
+     * {@link BookingSummaryDTO}.
+     */
+    List<BookingSummaryDTO> findSummaryPage(BookingPageRequest request, BookingCursor after, int limit);
+
+    /**
+     * Inserts the bookings with one unordered bulk write, so a row that fails
+     * does not stop the rows after it. Returns the error of every booking
+     * that was not written, by id. When the write fails without per-row
+     * errors the ids are read back; if that fails too the original error is
+     * thrown and which rows were stored is unknown.
+     */
+    Map<String, String> insertAll(List<Booking> bookings);
+
+    Optional<Booking> findArchivedById(String bookingId);
+
+    List<Booking> findArchivedByCustomerId(String customerId);
+
+    List<BookingSummaryDTO> findArchivedSummariesByCustomerId(String customerId);
+
+    /**
+     * Sets the given status and/or payment status in one findAndModify, only
+     * if the booking's current status is one of {@code expected} and its
+     * payment status one of {@code expectedPayment} (either unchecked when
+     * null). Returns the booking as it was before the update, or null when
+     * it does not exist or a precondition failed.
+     */
+    Booking compareAndSetStatus(String bookingId, Set<BookingStatus> expected, BookingStatus status,
+                                Set<PaymentStatus> expectedPayment, PaymentStatus paymentStatus);
+}
@@ -0,0 +1,184 @@
+package com.utkarshhh.repository;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.PaymentStatus;
+import com.utkarshhh.dto.BookingPageRequest;
+import com.utkarshhh.dto.BookingSummaryDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.util.BookingCursor;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private static final String[] SUMMARY_FIELDS =
+            {"salonId", "startTime", "endTime", "status", "paymentStatus", "totalPrice"};
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Booking> findPage(BookingPageRequest request, BookingCursor after, int limit) {
+        Query query = pageQuery(request, after, limit);
+        List<Booking> rows = mongoTemplate.find(query, Booking.class);
+        if (!request.isIncludeArchived()) {
+            return rows;
+        }
+        return merge(rows, mongoTemplate.find(query, Booking.class, ARCHIVE_COLLECTION), limit,
+                Comparator.comparing(Booking::getStartTime).thenComparing(Booking::getId));
+    }
+
+    @Override
+    public List<BookingSummaryDTO> findSummaryPage(BookingPageRequest request, BookingCursor after, int limit) {
+        Query query = pageQuery(request, after, limit);
+        query.fields().include(SUMMARY_FIELDS);
+
+        List<BookingSummaryDTO> rows = mongoTemplate.query(Booking.class)
+                .as(BookingSummaryDTO.class)
+                .matching(query)
+                .all();
+        if (!request.isIncludeArchived()) {
+            return rows;
+        }
+        return merge(rows, mongoTemplate.query(Booking.class)
+                        .inCollection(ARCHIVE_COLLECTION)
+                        .as(BookingSummaryDTO.class)
+                        .matching(query)
+                        .all(), limit,
+                Comparator.comparing(BookingSummaryDTO::getStartTime).thenComparing(BookingSummaryDTO::getId));
+    }
+
+    @Override
+    public Map<String, String> insertAll(List<Booking> bookings) {
+        Map<String, String> failed = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class)
+                    .insert(bookings)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed.put(bookings.get(error.getIndex()).getId(), error.getMessage());
+            }
+        } catch (RuntimeException e) {
+            Set<String> stored = storedIds(bookings);
+            bookings.stream()
+                    .filter(booking -> !stored.contains(booking.getId()))
+                    .forEach(booking -> failed.put(booking.getId(), e.getMessage()));
+        }
+        return failed;
+    }
+
+    private Set<String> storedIds(List<Booking> bookings) {
+        Query query = Query.query(Criteria.where("_id")
+                .in(bookings.stream().map(Booking::getId).collect(Collectors.toList())));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Booking.class).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Optional<Booking> findArchivedById(String bookingId) {
+        return Optional.ofNullable(mongoTemplate.findById(bookingId, Booking.class, ARCHIVE_COLLECTION));
+    }
+
+    @Override
+    public List<Booking> findArchivedByCustomerId(String customerId) {
+        return mongoTemplate.find(Query.query(Criteria.where("customerId").is(customerId)),
+                Booking.class, ARCHIVE_COLLECTION);
+    }
+
+    @Override
+    public List<BookingSummaryDTO> findArchivedSummariesByCustomerId(String customerId) {
+        Query query = Query.query(Criteria.where("customerId").is(customerId));
+        query.fields().include(SUMMARY_FIELDS);
+
+        return mongoTemplate.query(Booking.class)
+                .inCollection(ARCHIVE_COLLECTION)
+                .as(BookingSummaryDTO.class)
+                .matching(query)
+                .all();
+    }
+
+    // both inputs are already sorted pages of up to limit rows; the merged page keeps the first limit
+    private static <T> List<T> merge(List<T> hot, List<T> archived, int limit, Comparator<T> order) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<T> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        merged.addAll(archived);
+        merged.sort(order);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private Query pageQuery(BookingPageRequest request, BookingCursor after, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+
+        if (request.getCustomerId() != null) {
+            filters.add(Criteria.where("customerId").is(request.getCustomerId()));
+        }
+        if (request.getSalonId() != null) {
+            filters.add(Criteria.where("salonId").is(request.getSalonId()));
+        }
+        if (request.getStatus() != null) {
+            filters.add(Criteria.where("status").is(request.getStatus()));
+        }
+        if (request.getFrom() != null) {
+            filters.add(Criteria.where("startTime").gte(request.getFrom().atStartOfDay()));
+        }
+        if (request.getTo() != null) {
+            filters.add(Criteria.where("startTime").lt(request.getTo().plusDays(1).atStartOfDay()));
+        }
+        if (after != null) {
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("startTime").gt(after.startTime()),
+                    Criteria.where("startTime").is(after.startTime()).and("_id").gt(after.id())));
+        }
+
+        Criteria criteria = filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters);
+        return new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("startTime"), Sort.Order.asc("_id")))
+                .limit(limit);
+    }
+
+    @Override
+    public Booking compareAndSetStatus(String bookingId, Set<BookingStatus> expected, BookingStatus status,
+                                       Set<PaymentStatus> expectedPayment, PaymentStatus paymentStatus) {
+        Criteria criteria = Criteria.where("_id").is(bookingId);
+        if (expected != null) {
+            criteria.and("status").in(expected);
+        }
+        if (expectedPayment != null) {
+            criteria.and("paymentStatus").in(expectedPayment);
+        }
+
+        Update update = new Update();
+        if (status != null) {
+            update.set("status", status);
+        }
+        if (paymentStatus != null) {
+            update.set("paymentStatus", paymentStatus);
+        }
+
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), Booking.class);
+    }
+}
@@ -0,0 +1,27 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.util.OccupancyBitmap;
+
+import java.time.LocalDateTime;
+
+/**
+ * Storage behind slot checks and slot ownership. Selected with
+ * {@code booking.availability.engine}: {@code index} (default) keeps an
+ * in-memory interval index with a slot-claim collection, {@code bitmap}
+ * keeps one occupancy document per salon day, {@code capacity} builds on the
+ * index and admits concurrent bookings up to the salon's chair count.
+ */
+public interface AvailabilityEngine {
+
+    boolean isFree(String salonId, LocalDateTime start, LocalDateTime end);
+
+    OccupancyBitmap occupancy(String salonId, LocalDateTime from, LocalDateTime to);
+
+    void reserve(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) throws Exception;
+
+    void release(String salonId, String bookingId, LocalDateTime start, LocalDateTime end);
+
+    void onStatusChanged(Booking booking, BookingStatus previousStatus);
+}
@@ -0,0 +1,158 @@
+package com.utkarshhh.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.utkarshhh.dto.BookingSummaryDTO;
+import com.utkarshhh.dto.DayAvailabilityDTO;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.service.Impl.CapacityAvailabilityEngine;
+import com.utkarshhh.util.CapacitySweep;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Free minutes and the largest free gap per day of a salon's month, for the
+ * calendar view. A month costs one range query over its active bookings,
+ * sorted by start time, which are merged into busy stretches and walked
+ * once alongside the days' opening hours. Salons with several chairs or
+ * stylist hours count a stretch as busy only where it is at capacity.
+ * Results are cached per salon and month and dropped when a booking of
+ * that month is created or changes status on this replica; the TTL bounds
+ * staleness from other replicas and from edited salon hours.
+ */
+@Service
+public class AvailabilityHeatmapService {
+
+    private final BookingRepository bookingRepository;
+    private final Cache<String, List<DayAvailabilityDTO>> months;
+
+    public AvailabilityHeatmapService(BookingRepository bookingRepository,
+                                      @Value("${booking.cache.heatmap.max-size:10000}") long maxSize,
+                                      @Value("${booking.cache.heatmap.ttl:2m}") Duration ttl,
+                                      MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.months = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, months, "booking.heatmap");
+    }
+
+    public List<DayAvailabilityDTO> getMonth(SalonDTO salonDTO, YearMonth month) {
+        return months.get(key(salonDTO.getId(), month), key -> compute(salonDTO, month, LocalDateTime.now()));
+    }
+
+    /**
+     * Drops the cached months the booking falls in, including the month
+     * before when it may belong to an overnight opening that started there.
+     */
+    public void onBookingChanged(Booking booking) {
+        YearMonth last = YearMonth.from(booking.getEndTime());
+        for (YearMonth month = YearMonth.from(booking.getStartTime().minusDays(1));
+             !month.isAfter(last); month = month.plusMonths(1)) {
+            months.invalidate(key(booking.getSalonId(), month));
+        }
+    }
+
+    private List<DayAvailabilityDTO> compute(SalonDTO salonDTO, YearMonth month, LocalDateTime now) {
+        LocalDate first = month.atDay(1);
+        LocalDate last = month.atEndOfMonth();
+        LocalDateTime from = later(openTime(salonDTO, first), now);
+        LocalDateTime to = closeTime(salonDTO, last);
+
+        List<long[]> busy = from.isBefore(to) ? busyStretches(salonDTO, from, to, now) : List.of();
+
+        List<DayAvailabilityDTO> days = new ArrayList<>();
+        int next = 0;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            long open = toSeconds(later(openTime(salonDTO, day), now));
+            long close = toSeconds(closeTime(salonDTO, day));
+            while (next < busy.size() && busy.get(next)[1] <= open) {
+                next++;
+            }
+
+            long free = 0;
+            long largest = 0;
+            long cursor = open;
+            for (int i = next; i < busy.size() && busy.get(i)[0] < close && cursor < close; i++) {
+                long gap = busy.get(i)[0] - cursor;
+                if (gap > 0) {
+                    free += gap;
+                    largest = Math.max(largest, gap);
+                }
+                cursor = Math.max(cursor, busy.get(i)[1]);
+            }
+            if (cursor < close) {
+                free += close - cursor;
+                largest = Math.max(largest, close - cursor);
+            }
+            days.add(new DayAvailabilityDTO(day, (int) (free / 60), (int) (largest / 60)));
+        }
+        return days;
+    }
+
+    // disjoint [start, end) stretches in epoch seconds and time order where no booking fits
+    private List<long[]> busyStretches(SalonDTO salonDTO, LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        List<BookingSummaryDTO> bookings = bookingRepository.findActiveSummariesBySalonIdOverlapping(
+                salonDTO.getId(), from, to, now, Sort.by("startTime"));
+        List<long[]> busy = new ArrayList<>();
+
+        if (CapacityAvailabilityEngine.hasCapacity(salonDTO)) {
+            CapacitySweep sweep = CapacityAvailabilityEngine.emptySweep(salonDTO, from, to);
+            bookings.forEach(booking -> sweep.addBooking(toSeconds(booking.getStartTime()),
+                    toSeconds(booking.getEndTime())));
+            sweep.forEachFull(toSeconds(from), toSeconds(to), (start, end) -> busy.add(new long[]{start, end}));
+            return busy;
+        }
+
+        for (BookingSummaryDTO booking : bookings) {
+            long start = toSeconds(booking.getStartTime());
+            long end = toSeconds(booking.getEndTime());
+            long[] previous = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+            if (previous != null && start <= previous[1]) {
+                previous[1] = Math.max(previous[1], end);
+            } else {
+                busy.add(new long[]{start, end});
+            }
+        }
+        return busy;
+    }
+
+    private static LocalDateTime openTime(SalonDTO salonDTO, LocalDate date) {
+        return LocalDateTime.of(date, salonDTO.getOpenTime());
+    }
+
+    private static LocalDateTime closeTime(SalonDTO salonDTO, LocalDate date) {
+        LocalDateTime closeTime = LocalDateTime.of(date, salonDTO.getCloseTime());
+        if (salonDTO.getCloseTime().isBefore(salonDTO.getOpenTime())) {
+            closeTime = closeTime.plusDays(1);
+        }
+        return closeTime;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static String key(String salonId, YearMonth month) {
+        return salonId + "|" + month;
+    }
+}
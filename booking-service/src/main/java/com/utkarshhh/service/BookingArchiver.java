@@ -0,0 +1,183 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.JobStatus;
+import com.utkarshhh.domain.OutboxState;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.MigrationCheckpoint;
+import com.utkarshhh.model.SeatClaim;
+import com.utkarshhh.model.SlotClaim;
+import com.utkarshhh.repository.BookingRepositoryCustom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves finished bookings out of the hot collection. COMPLETED and CANCELLED
+ * bookings that ended more than {@code booking.archive.min-age} ago are
+ * copied to {@code booking_archive} with a bulk upsert and then deleted, one
+ * batch at a time in _id order. The delete only matches rows whose status,
+ * payment status and outbox state are still the ones copied; a row updated
+ * in between is copied again, or left in the hot collection alone if it is
+ * no longer finished. Progress is checkpointed after every batch so an
+ * interrupted pass resumes where it stopped; because the copy is an upsert,
+ * redoing a batch whose delete did not happen is harmless.
+ */
+@Slf4j
+@Service
+public class BookingArchiver {
+
+    static final String JOB_ID = "booking-archive";
+
+    private final MongoTemplate mongoTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final Duration minAge;
+    private final int batchSize;
+    private final Duration leaseDuration;
+
+    public BookingArchiver(MongoTemplate mongoTemplate,
+                           JobLeaseService jobLeaseService,
+                           @Value("${booking.archive.min-age:180d}") Duration minAge,
+                           @Value("${booking.archive.batch-size:500}") int batchSize,
+                           @Value("${booking.archive.lease:10m}") Duration leaseDuration) {
+        this.mongoTemplate = mongoTemplate;
+        this.jobLeaseService = jobLeaseService;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Scheduled(initialDelayString = "${booking.archive.initial-delay:PT5M}",
+            fixedDelayString = "${booking.archive.interval:PT6H}")
+    public void archive() {
+        try {
+            if (!jobLeaseService.acquire(JOB_ID, leaseDuration)) {
+                return;
+            }
+            run();
+        } catch (Exception e) {
+            log.warn("Booking archive pass failed: {}", e.getMessage());
+        }
+    }
+
+    private void run() {
+        MigrationCheckpoint checkpoint = mongoTemplate.findById(JOB_ID, MigrationCheckpoint.class);
+        if (checkpoint == null || checkpoint.getStatus() == JobStatus.COMPLETED) {
+            checkpoint = new MigrationCheckpoint();
+            checkpoint.setId(JOB_ID);
+            checkpoint.setStartedAt(LocalDateTime.now());
+        } else {
+            log.info("Resuming {} after booking {}", JOB_ID, checkpoint.getLastBookingId());
+        }
+        checkpoint.setStatus(JobStatus.RUNNING);
+        checkpoint.setError(null);
+        checkpoint.setFinishedAt(null);
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        try {
+            List<Booking> batch;
+            do {
+                batch = nextBatch(checkpoint.getLastBookingId(), cutoff);
+                if (!batch.isEmpty()) {
+                    // fixed counts the bookings this pass moved
+                    checkpoint.setFixed(checkpoint.getFixed() + move(batch, cutoff));
+                    checkpoint.setScanned(checkpoint.getScanned() + batch.size());
+                    checkpoint.setLastBookingId(batch.get(batch.size() - 1).getId());
+                }
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                mongoTemplate.save(checkpoint);
+                if (batch.size() == batchSize && !jobLeaseService.renew(JOB_ID, leaseDuration)) {
+                    // the new holder resumes from the checkpoint just saved
+                    return;
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            checkpoint.setStatus(JobStatus.FAILED);
+            checkpoint.setError(e.getMessage());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            mongoTemplate.save(checkpoint);
+            throw e;
+        }
+
+        checkpoint.setStatus(JobStatus.COMPLETED);
+        checkpoint.setFinishedAt(LocalDateTime.now());
+        mongoTemplate.save(checkpoint);
+        if (checkpoint.getFixed() > 0) {
+            log.info("Archived {} finished bookings", checkpoint.getFixed());
+        }
+    }
+
+    private List<Booking> nextBatch(String afterId, LocalDateTime cutoff) {
+        Criteria criteria = archivable(cutoff);
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(afterId);
+        }
+        return mongoTemplate.find(new Query(criteria)
+                .with(Sort.by("_id"))
+                .limit(batchSize), Booking.class);
+    }
+
+    private long move(List<Booking> batch, LocalDateTime cutoff) {
+        List<String> ids = batch.stream().map(Booking::getId).collect(Collectors.toList());
+        long moved = copyAndDelete(batch);
+        if (moved < batch.size()) {
+            // rows updated between the copy and the delete, e.g. a late
+            // payment marking REFUND_DUE: copy their current state once more
+            List<Booking> changed = mongoTemplate.find(new Query(archivable(cutoff).and("_id").in(ids)),
+                    Booking.class);
+            moved += copyAndDelete(changed);
+        }
+
+        Query remaining = Query.query(Criteria.where("_id").in(ids));
+        remaining.fields().include("_id");
+        List<String> kept = mongoTemplate.find(remaining, Booking.class).stream()
+                .map(Booking::getId).collect(Collectors.toList());
+        if (!kept.isEmpty()) {
+            // still live or still changing: the hot row stays the only copy
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(kept)), Booking.class,
+                    BookingRepositoryCustom.ARCHIVE_COLLECTION);
+            ids.removeAll(kept);
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("bookingId").in(ids)), SlotClaim.class);
+        mongoTemplate.remove(Query.query(Criteria.where("bookingId").in(ids)), SeatClaim.class);
+        return moved;
+    }
+
+    private long copyAndDelete(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                Booking.class, BookingRepositoryCustom.ARCHIVE_COLLECTION);
+        bookings.forEach(booking -> copy.replaceOne(Query.query(Criteria.where("_id").is(booking.getId())),
+                booking, FindAndReplaceOptions.options().upsert()));
+        copy.execute();
+
+        // a row is deleted only if the fields that change after a booking
+        // finishes still match what was copied
+        BulkOperations delete = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+        bookings.forEach(booking -> delete.remove(Query.query(Criteria.where("_id").is(booking.getId())
+                .and("status").is(booking.getStatus())
+                .and("paymentStatus").is(booking.getPaymentStatus())
+                .and("outbox.state").is(booking.getOutbox() == null ? null : booking.getOutbox().getState()))));
+        return delete.execute().getDeletedCount();
+    }
+
+    private static Criteria archivable(LocalDateTime cutoff) {
+        return Criteria.where("status").in(BookingStatus.COMPLETED, BookingStatus.CANCELLED)
+                .and("endTime").lt(cutoff)
+                .and("outbox.state").ne(OutboxState.PENDING);
+    }
+}
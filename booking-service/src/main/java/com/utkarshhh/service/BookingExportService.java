@@ -0,0 +1,117 @@
+package com.utkarshhh.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utkarshhh.domain.ExportFormat;
+import com.utkarshhh.mapper.BookingMapper;
+import com.utkarshhh.model.Booking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a salon's bookings straight from a Mongo cursor to the response.
+ * Only one cursor batch and one write buffer are held at a time, so memory
+ * does not grow with the size of the salon's history.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingExportService {
+
+    private static final int CURSOR_BATCH_SIZE = 500;
+    private static final int WRITE_BUFFER_CHARS = 16 * 1024;
+
+    private static final String CSV_HEADER = "id,salonId,customerId,customerName,customerEmail,startTime,endTime,"
+            + "serviceIds,status,paymentStatus,paymentMethod,totalPrice";
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void export(String salonId, LocalDate from, LocalDate to, ExportFormat format, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Booking> bookings = mongoTemplate.stream(query(salonId, from, to), Booking.class)) {
+            Iterator<Booking> it = bookings.iterator();
+            while (it.hasNext()) {
+                Booking booking = it.next();
+                writer.write(format == ExportFormat.CSV ? toCsv(booking) : toJson(booking));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private Query query(String salonId, LocalDate from, LocalDate to) {
+        Criteria criteria = Criteria.where("salonId").is(salonId);
+        if (from != null || to != null) {
+            Criteria startTime = criteria.and("startTime");
+            if (from != null) {
+                startTime.gte(from.atStartOfDay());
+            }
+            if (to != null) {
+                startTime.lt(to.plusDays(1).atStartOfDay());
+            }
+        }
+        return new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("startTime"), Sort.Order.asc("_id")))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+    }
+
+    private String toJson(Booking booking) {
+        try {
+            return objectMapper.writeValueAsString(BookingMapper.toDTO(booking));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toCsv(Booking booking) {
+        return String.join(",",
+                csv(booking.getId()),
+                csv(booking.getSalonId()),
+                csv(booking.getCustomerId()),
+                csv(booking.getCustomerName()),
+                csv(booking.getCustomerEmail()),
+                csv(booking.getStartTime()),
+                csv(booking.getEndTime()),
+                csv(booking.getServiceIds() == null ? null : String.join(";", booking.getServiceIds())),
+                csv(booking.getStatus()),
+                csv(booking.getPaymentStatus()),
+                csv(booking.getPaymentMethod()),
+                String.valueOf(booking.getTotalPrice()));
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            // a spreadsheet would evaluate the cell; the quote makes it plain text
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
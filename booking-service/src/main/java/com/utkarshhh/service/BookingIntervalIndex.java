@@ -0,0 +1,194 @@
+package com.utkarshhh.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.util.IntervalSchedule;
+import com.utkarshhh.util.OccupancyBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Per-salon, per-day index of non-cancelled booking intervals. A day is
+ * loaded from Mongo with a date-bounded query on first use and then kept
+ * current by the create, cancel and status-change paths; days are reloaded
+ * after the TTL so writes made by other replicas are picked up. The days are
+ * held in a Caffeine cache bounded by count as well as age, so eviction
+ * costs nothing on the booking path.
+ */
+@Service
+public class BookingIntervalIndex {
+
+    private final BookingRepository bookingRepository;
+    private final Cache<DayKey, IntervalSchedule> days;
+    private final Map<String, Object> salonLocks = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${booking.availability.index-ttl:5m}") Duration ttl,
+                                @Value("${booking.availability.index-max-days:100000}") long maxDays) {
+        this.bookingRepository = bookingRepository;
+        // in-place updates are not cache writes, so a day still expires a TTL after it was loaded
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean overlaps(String salonId, LocalDateTime start, LocalDateTime end) {
+        long s = toSeconds(start);
+        long e = endSeconds(start, end);
+
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(lastDay(start, end)); day = day.plusDays(1)) {
+            if (schedule(salonId, day).overlaps(s, e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every indexed interval overlapping the window, once each, as epoch
+     * seconds; a booking spanning midnight is indexed under both days.
+     */
+    public void forEachOverlapping(String salonId, LocalDateTime start, LocalDateTime end,
+                                   IntervalSchedule.IntervalConsumer consumer) {
+        long s = toSeconds(start);
+        long e = endSeconds(start, end);
+        Set<String> seen = new HashSet<>();
+
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(lastDay(start, end)); day = day.plusDays(1)) {
+            schedule(salonId, day).forEachOverlapping(s, e, (id, from, to) -> {
+                if (seen.add(id)) {
+                    consumer.accept(id, from, to);
+                }
+            });
+        }
+    }
+
+    public OccupancyBitmap occupancy(String salonId, LocalDateTime from, LocalDateTime to) {
+        OccupancyBitmap bitmap = new OccupancyBitmap(from, to);
+        long s = toSeconds(from);
+        long e = endSeconds(from, to);
+
+        for (LocalDate day = from.toLocalDate(); !day.isAfter(lastDay(from, to)); day = day.plusDays(1)) {
+            schedule(salonId, day).forEachOverlapping(s, e,
+                    (id, start, end) -> bitmap.occupy(start, end));
+        }
+        return bitmap;
+    }
+
+    /**
+     * Atomically checks the window and records it under {@code bookingId}.
+     * Returns false, leaving the index untouched, when the window is taken.
+     */
+    public boolean reserve(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        return reserve(salonId, bookingId, start, end, () -> !overlaps(salonId, start, end));
+    }
+
+    /**
+     * Like {@link #reserve(String, String, LocalDateTime, LocalDateTime)},
+     * but the window is taken whenever {@code admits} accepts it, which is
+     * evaluated under the salon's lock.
+     */
+    public boolean reserve(String salonId, String bookingId, LocalDateTime start, LocalDateTime end,
+                           BooleanSupplier admits) {
+        synchronized (lock(salonId)) {
+            if (!admits.getAsBoolean()) {
+                return false;
+            }
+            index(salonId, bookingId, start, end);
+            return true;
+        }
+    }
+
+    public void release(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        synchronized (lock(salonId)) {
+            remove(salonId, bookingId, start, end);
+        }
+    }
+
+    public void onBookingChanged(Booking booking) {
+        if (booking.getStartTime() == null || booking.getEndTime() == null) {
+            return;
+        }
+
+        synchronized (lock(booking.getSalonId())) {
+            remove(booking.getSalonId(), booking.getId(), booking.getStartTime(), booking.getEndTime());
+            if (booking.getStatus() != BookingStatus.CANCELLED) {
+                index(booking.getSalonId(), booking.getId(), booking.getStartTime(), booking.getEndTime());
+            }
+        }
+    }
+
+    private IntervalSchedule schedule(String salonId, LocalDate date) {
+        return days.get(new DayKey(salonId, date), this::load);
+    }
+
+    private IntervalSchedule load(DayKey key) {
+        LocalDateTime dayStart = key.date().atStartOfDay();
+        IntervalSchedule schedule = new IntervalSchedule();
+
+        for (Booking booking : bookingRepository.findActiveBySalonIdOverlapping(
+                key.salonId(), dayStart, dayStart.plusDays(1), LocalDateTime.now())) {
+            schedule.add(booking.getId(),
+                    toSeconds(booking.getStartTime()),
+                    endSeconds(booking.getStartTime(), booking.getEndTime()));
+        }
+        return schedule;
+    }
+
+    // only days already in memory are touched; the rest pick the booking up when loaded
+    private void index(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        long s = toSeconds(start);
+        long e = endSeconds(start, end);
+
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(lastDay(start, end)); day = day.plusDays(1)) {
+            IntervalSchedule schedule = days.getIfPresent(new DayKey(salonId, day));
+            if (schedule != null) {
+                schedule.add(bookingId, s, e);
+            }
+        }
+    }
+
+    private void remove(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(lastDay(start, end)); day = day.plusDays(1)) {
+            IntervalSchedule schedule = days.getIfPresent(new DayKey(salonId, day));
+            if (schedule != null) {
+                schedule.remove(bookingId);
+            }
+        }
+    }
+
+    private Object lock(String salonId) {
+        return salonLocks.computeIfAbsent(salonId, id -> new Object());
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // zero-length windows still collide with a booking starting at the same instant
+    private static long endSeconds(LocalDateTime start, LocalDateTime end) {
+        return Math.max(toSeconds(end), toSeconds(start) + 1);
+    }
+
+    private static LocalDate lastDay(LocalDateTime start, LocalDateTime end) {
+        LocalDate last = end.minusSeconds(1).toLocalDate();
+        return last.isBefore(start.toLocalDate()) ? start.toLocalDate() : last;
+    }
+
+    private record DayKey(String salonId, LocalDate date) {
+    }
+}
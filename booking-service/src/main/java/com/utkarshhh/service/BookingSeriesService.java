@@ -0,0 +1,288 @@
+package com.utkarshhh.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.SeriesStatus;
+import com.utkarshhh.dto.BatchBookingResultDTO;
+import com.utkarshhh.dto.BookingRequest;
+import com.utkarshhh.dto.BookingSeriesRequest;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.dto.ServiceDTO;
+import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.exception.BookingTransitionException;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.BookingSeries;
+import com.utkarshhh.model.SeriesConflict;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recurring series are stored as a rule and expanded into bookings lazily,
+ * only up to a rolling horizon. Each pass picks due series through the
+ * (status, expandedUntil) index, takes a short lease on each so replicas do
+ * not expand the same series twice, and creates all of a series' new
+ * occurrences with one batch create: one occupancy read and one insert.
+ * Occurrences that do not fit are recorded on the series and skipped.
+ */
+@Slf4j
+@Service
+public class BookingSeriesService {
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final int MAX_COUNT = 520;
+    private static final int KEPT_CONFLICTS = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final BookingService bookingService;
+    private final SalonService salonService;
+    private final ServiceOfferingService serviceOfferingService;
+    private final int horizonDays;
+    private final int maxSeriesPerRun;
+
+    public BookingSeriesService(MongoTemplate mongoTemplate,
+                                BookingService bookingService,
+                                SalonService salonService,
+                                ServiceOfferingService serviceOfferingService,
+                                @Value("${booking.series.horizon-days:28}") int horizonDays,
+                                @Value("${booking.series.max-per-run:1000}") int maxSeriesPerRun) {
+        this.mongoTemplate = mongoTemplate;
+        this.bookingService = bookingService;
+        this.salonService = salonService;
+        this.serviceOfferingService = serviceOfferingService;
+        this.horizonDays = horizonDays;
+        this.maxSeriesPerRun = maxSeriesPerRun;
+    }
+
+    public BookingSeries createSeries(BookingSeriesRequest request, UserDTO customer) throws Exception {
+        if (request.getSalonId() == null || request.getStartTime() == null
+                || request.getServiceIds() == null || request.getServiceIds().isEmpty()) {
+            throw new Exception("salonId, startTime and at least one service are required");
+        }
+        if (request.getIntervalWeeks() < 1) {
+            throw new Exception("intervalWeeks must be at least 1");
+        }
+        if (request.getUntil() == null && request.getCount() == null) {
+            throw new Exception("Either until or count is required");
+        }
+        if (request.getCount() != null && (request.getCount() < 1 || request.getCount() > MAX_COUNT)) {
+            throw new Exception("count must be between 1 and " + MAX_COUNT);
+        }
+        if (request.getUntil() != null && request.getUntil().isBefore(request.getStartTime().toLocalDate())) {
+            throw new Exception("until must not be before the first occurrence");
+        }
+
+        salonService.getSalonById(request.getSalonId());
+        serviceOfferingService.getServicesByIds(request.getServiceIds());
+
+        BookingSeries series = new BookingSeries();
+        series.setSalonId(request.getSalonId());
+        series.setCustomerId(customer.getId());
+        series.setCustomerName(customer.getFullName());
+        series.setCustomerEmail(customer.getEmail());
+        series.setServiceIds(request.getServiceIds());
+        series.setPaymentMethod(request.getPaymentMethod());
+        series.setFirstStart(request.getStartTime());
+        series.setIntervalWeeks(request.getIntervalWeeks());
+        series.setUntil(request.getUntil());
+        series.setCount(request.getCount());
+        series.setExpandedUntil(request.getStartTime());
+        series.setCreatedAt(LocalDateTime.now());
+        series.setLeaseUntil(LocalDateTime.now().plus(LEASE));
+        series = mongoTemplate.insert(series);
+
+        // the first expansion runs for the caller, so a series that cannot book
+        // anything is refused rather than created empty
+        try {
+            expand(series);
+        } catch (Exception e) {
+            mongoTemplate.remove(series);
+            throw new Exception("Could not book the series: " + e.getMessage(), e);
+        }
+        BookingSeries expanded = getSeries(series.getId());
+        if (expanded.getCreated() == 0 && !expanded.getConflicts().isEmpty()) {
+            mongoTemplate.remove(expanded);
+            throw new Exception("Could not book the series: " + expanded.getConflicts().get(0).getReason());
+        }
+        return expanded;
+    }
+
+    public BookingSeries getSeries(String seriesId) throws Exception {
+        BookingSeries series = mongoTemplate.findById(seriesId, BookingSeries.class);
+        if (series == null) {
+            throw new Exception("Series not found with id: " + seriesId);
+        }
+        return series;
+    }
+
+    public List<BookingSeries> getSeriesByCustomer(String customerId) {
+        return mongoTemplate.find(Query.query(Criteria.where("customerId").is(customerId)), BookingSeries.class);
+    }
+
+    /**
+     * Stops further expansion and cancels the occurrences that have not
+     * started yet. Past occurrences are left as they are. Only the customer
+     * the series belongs to may cancel it.
+     */
+    public BookingSeries cancelSeries(String seriesId, String userId) throws Exception {
+        BookingSeries series = getSeries(seriesId);
+        if (!series.getCustomerId().equals(userId)) {
+            throw new Exception("Series " + seriesId + " does not belong to user " + userId);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(seriesId)),
+                new Update().set("status", SeriesStatus.CANCELLED), BookingSeries.class);
+
+        List<Booking> upcoming = mongoTemplate.find(Query.query(Criteria.where("seriesId").is(seriesId)
+                .and("startTime").gt(LocalDateTime.now())
+                .and("status").ne(BookingStatus.CANCELLED)), Booking.class);
+        cancelOccurrences(upcoming.stream().map(Booking::getId).toList());
+
+        series.setStatus(SeriesStatus.CANCELLED);
+        return series;
+    }
+
+    @Scheduled(initialDelayString = "${booking.series.expand-initial-delay:PT1M}",
+            fixedDelayString = "${booking.series.expand-interval:PT15M}")
+    public void expandDueSeries() {
+        LocalDateTime horizon = LocalDateTime.now().plusDays(horizonDays);
+        int expanded = 0;
+
+        BookingSeries series;
+        while (expanded < maxSeriesPerRun && (series = leaseDueSeries(horizon)) != null) {
+            try {
+                expand(series);
+            } catch (Exception e) {
+                // leave the series due; the lease lapses and a later pass retries
+                log.warn("Could not expand booking series {}: {}", series.getId(), e.getMessage());
+            }
+            expanded++;
+        }
+        if (expanded > 0) {
+            log.info("Expanded {} booking series up to {}", expanded, horizon.toLocalDate());
+        }
+    }
+
+    private BookingSeries leaseDueSeries(LocalDateTime horizon) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("status").is(SeriesStatus.ACTIVE).and("expandedUntil").lt(horizon),
+                new Criteria().orOperator(
+                        Criteria.where("leaseUntil").is(null),
+                        Criteria.where("leaseUntil").lt(now))))
+                .with(Sort.by("expandedUntil"));
+
+        return mongoTemplate.findAndModify(query,
+                new Update().set("leaseUntil", now.plus(LEASE)),
+                FindAndModifyOptions.options().returnNew(true),
+                BookingSeries.class);
+    }
+
+    private void expand(BookingSeries series) throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusDays(horizonDays);
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        int next = series.getNextOccurrence();
+        for (; !isPastEnd(series, next) && occurrence(series, next).isBefore(horizon); next++) {
+            LocalDateTime start = occurrence(series, next);
+            if (start.isAfter(now)) {
+                starts.add(start);
+            }
+        }
+
+        Update update = new Update()
+                .set("nextOccurrence", next)
+                .set("expandedUntil", horizon)
+                .unset("leaseUntil");
+        if (isPastEnd(series, next)) {
+            update.set("status", SeriesStatus.ENDED);
+        }
+
+        List<String> created = new ArrayList<>();
+        if (!starts.isEmpty()) {
+            List<SeriesConflict> conflicts = new ArrayList<>();
+            created = createOccurrences(series, starts, conflicts);
+
+            update.inc("created", created.size());
+            if (!conflicts.isEmpty()) {
+                update.push("conflicts").slice(-KEPT_CONFLICTS).each(conflicts.toArray());
+            }
+        }
+
+        UpdateResult result = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(series.getId())
+                .and("status").is(SeriesStatus.ACTIVE)), update, BookingSeries.class);
+        if (result.getMatchedCount() == 0 && !created.isEmpty()) {
+            // the series was cancelled while this pass was booking, and the
+            // cancel's query may have run before these occurrences existed
+            log.info("Booking series {} was cancelled during expansion; cancelling {} new occurrences",
+                    series.getId(), created.size());
+            cancelOccurrences(created);
+        }
+    }
+
+    private List<String> createOccurrences(BookingSeries series, List<LocalDateTime> starts,
+                                           List<SeriesConflict> conflicts) throws Exception {
+        SalonDTO salonDTO = salonService.getSalonById(series.getSalonId());
+        Map<String, ServiceDTO> services = serviceOfferingService.findServicesByIds(series.getServiceIds());
+
+        UserDTO customer = new UserDTO();
+        customer.setId(series.getCustomerId());
+        customer.setFullName(series.getCustomerName());
+        customer.setEmail(series.getCustomerEmail());
+
+        List<BookingRequest> requests = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            BookingRequest request = new BookingRequest();
+            request.setSalonId(series.getSalonId());
+            request.setStartTime(start);
+            request.setServiceIds(series.getServiceIds());
+            request.setPaymentMethod(series.getPaymentMethod());
+            requests.add(request);
+        }
+
+        List<String> created = new ArrayList<>();
+        for (BatchBookingResultDTO result : bookingService.createBookings(
+                salonDTO, customer, requests, services, series.getId())) {
+            if (result.isCreated()) {
+                created.add(result.getBooking().getId());
+            } else {
+                conflicts.add(new SeriesConflict(starts.get(result.getIndex()), result.getError()));
+            }
+        }
+        return created;
+    }
+
+    private void cancelOccurrences(List<String> bookingIds) throws Exception {
+        for (String bookingId : bookingIds) {
+            try {
+                bookingService.updateBooking(bookingId, BookingStatus.CANCELLED);
+            } catch (BookingTransitionException e) {
+                log.info("Skipping series occurrence {}: {}", bookingId, e.getMessage());
+            }
+        }
+    }
+
+    private static LocalDateTime occurrence(BookingSeries series, int n) {
+        return series.getFirstStart().plusWeeks((long) n * series.getIntervalWeeks());
+    }
+
+    private static boolean isPastEnd(BookingSeries series, int n) {
+        if (series.getCount() != null && n >= series.getCount()) {
+            return true;
+        }
+        return series.getUntil() != null && occurrence(series, n).toLocalDate().isAfter(series.getUntil());
+    }
+}
@@ -1,7 +1,14 @@
 package com.utkarshhh.service;
 
 import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.PaymentStatus;
+import com.utkarshhh.dto.BatchBookingResultDTO;
 import com.utkarshhh.dto.BookingDTO;
+import com.utkarshhh.dto.BookingPageDTO;
+import com.utkarshhh.dto.BookingPageRequest;
+import com.utkarshhh.dto.BookingSummaryDTO;
+import com.utkarshhh.dto.BookingRequest;
+import com.utkarshhh.dto.DayAvailabilityDTO;
 import com.utkarshhh.dto.SalonDTO;
 import com.utkarshhh.dto.ServiceDTO;
 import com.utkarshhh.dto.UserDTO;
@@ -9,8 +16,11 @@ import com.utkarshhh.model.Booking;
 import com.utkarshhh.model.SalonReport;
 import org.bson.types.ObjectId;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface BookingService {
@@ -20,18 +30,54 @@ public interface BookingService {
                           SalonDTO salonDTO,
                           Set<ServiceDTO> serviceDTOSet) throws Exception;
 
-    List<Booking> getBookingsByCustomer(String customerId);
+    /**
+     * Creates every request that fits, checking them against one occupancy
+     * read per run of days the batch touches and against each other, and
+     * inserts the accepted bookings together. Requests without a customer
+     * are booked for {@code defaultCustomer}; naming another customer is
+     * only allowed when {@code defaultCustomer} owns the salon.
+     * {@code seriesId} tags occurrences of a recurring series and is null
+     * otherwise. Returns one result per request, in order.
+     */
+    List<BatchBookingResultDTO> createBookings(SalonDTO salonDTO,
+                                               UserDTO defaultCustomer,
+                                               List<BookingRequest> requests,
+                                               Map<String, ServiceDTO> services,
+                                               String seriesId);
+
+    List<Booking> getBookingsByCustomer(String customerId, boolean includeArchived);
 
     List<Booking> getBookingBySalon(String salonId);
 
+    List<BookingSummaryDTO> getBookingSummariesByCustomer(String customerId, boolean includeArchived);
+
+    List<BookingSummaryDTO> getBookingSummariesBySalon(String salonId);
+
+    /**
+     * Returns {@link BookingDTO} or {@link BookingSummaryDTO} items depending
+     * on the request's view.
+     */
+    BookingPageDTO<?> getBookingPage(BookingPageRequest request);
+
+    /**
+     * Looks in the archive when the booking is no longer in the hot collection.
+     */
     Booking getBookingById(String id) throws Exception;
 
     Booking updateBooking(String bookingId, BookingStatus status) throws Exception;
 
     BookingDTO updateBookingStatus(String bookingId, BookingStatus bookingStatus);
 
+    Booking updatePaymentStatus(String bookingId, PaymentStatus paymentStatus) throws Exception;
+
     List<Booking> getBookingByDate(LocalDateTime date, String salonId);
 
-    SalonReport getSalonReport(String salonId);
+    List<BookingSummaryDTO> getBookingSummariesByDate(LocalDateTime date, String salonId);
+
+    SalonReport getSalonReport(String salonId, LocalDate from, LocalDate to);
+
+    List<LocalDateTime> getAvailableSlots(SalonDTO salonDTO, LocalDate date, int durationMinutes);
+
+    List<DayAvailabilityDTO> getMonthAvailability(SalonDTO salonDTO, YearMonth month);
 
 }
\ No newline at end of file
@@ -0,0 +1,291 @@
+package com.utkarshhh.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.utkarshhh.client.UserClient;
+import com.utkarshhh.domain.JobStatus;
+import com.utkarshhh.dto.MigrationStatusDTO;
+import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.MigrationCheckpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Backfills customerName and customerEmail on bookings created without them.
+ * Runs on a background thread: bookings missing either field are streamed
+ * in _id order, each batch's distinct customers are resolved through the
+ * user service with bounded parallelism, and the fixes are written with one
+ * bulk update per batch. A checkpoint is saved after every batch, and a job
+ * interrupted by a restart resumes from it once the application is up. The
+ * job lease keeps the run on one replica; the others wait for it to lapse
+ * in case the holder died.
+ */
+@Slf4j
+@Service
+public class CustomerBackfillJob {
+
+    static final String JOB_ID = "customer-backfill";
+
+    private final MongoTemplate mongoTemplate;
+    private final UserClient userClient;
+    private final JobLeaseService jobLeaseService;
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration leaseDuration;
+    private final AtomicBoolean active = new AtomicBoolean();
+
+    // throughput is measured over the current run only, not across restarts
+    private volatile LocalDateTime runStartedAt;
+    private volatile long scannedAtRunStart;
+
+    public CustomerBackfillJob(MongoTemplate mongoTemplate,
+                               UserClient userClient,
+                               JobLeaseService jobLeaseService,
+                               @Value("${booking.migration.batch-size:500}") int batchSize,
+                               @Value("${booking.migration.parallelism:8}") int parallelism,
+                               @Value("${booking.migration.lease:2m}") Duration leaseDuration) {
+        this.mongoTemplate = mongoTemplate;
+        this.userClient = userClient;
+        this.jobLeaseService = jobLeaseService;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(() -> {
+            try {
+                resume();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Could not check {} checkpoint: {}", JOB_ID, e.getMessage());
+            }
+        }, "customer-backfill-resume");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts the job unless it is already running here or on another
+     * replica. A run that was interrupted or failed is resumed from its
+     * checkpoint; after a completed run a new pass starts from the beginning.
+     */
+    public MigrationStatusDTO start() {
+        if (active.compareAndSet(false, true)) {
+            Thread thread = new Thread(() -> {
+                if (jobLeaseService.acquire(JOB_ID, leaseDuration)) {
+                    run();
+                } else {
+                    log.info("{} is already running on another instance", JOB_ID);
+                    active.set(false);
+                }
+            }, JOB_ID);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return status();
+    }
+
+    // every replica sees a RUNNING checkpoint after a restart; the lease picks one, the rest
+    // keep checking until the job is done or the holder's lease lapses
+    private void resume() throws InterruptedException {
+        while (true) {
+            Optional<MigrationCheckpoint> checkpoint = checkpoint();
+            if (checkpoint.isEmpty() || checkpoint.get().getStatus() != JobStatus.RUNNING) {
+                return;
+            }
+            if (jobLeaseService.acquire(JOB_ID, leaseDuration)) {
+                if (active.compareAndSet(false, true)) {
+                    log.info("Resuming {} after booking {}", JOB_ID, checkpoint.get().getLastBookingId());
+                    run();
+                }
+                return;
+            }
+            Thread.sleep(leaseDuration.toMillis());
+        }
+    }
+
+    public MigrationStatusDTO status() {
+        MigrationStatusDTO dto = new MigrationStatusDTO();
+        dto.setActive(active.get());
+        checkpoint().ifPresent(checkpoint -> {
+            dto.setStatus(checkpoint.getStatus());
+            dto.setLastBookingId(checkpoint.getLastBookingId());
+            dto.setScanned(checkpoint.getScanned());
+            dto.setFixed(checkpoint.getFixed());
+            dto.setFailed(checkpoint.getFailed());
+            dto.setStartedAt(checkpoint.getStartedAt());
+            dto.setUpdatedAt(checkpoint.getUpdatedAt());
+            dto.setFinishedAt(checkpoint.getFinishedAt());
+            dto.setError(checkpoint.getError());
+
+            LocalDateTime since = runStartedAt;
+            if (since != null && checkpoint.getUpdatedAt() != null) {
+                double seconds = Duration.between(since, checkpoint.getUpdatedAt()).toMillis() / 1000.0;
+                if (seconds > 0) {
+                    dto.setBookingsPerSecond((checkpoint.getScanned() - scannedAtRunStart) / seconds);
+                }
+            }
+        });
+        return dto;
+    }
+
+    private void run() {
+        MigrationCheckpoint checkpoint = checkpoint()
+                .filter(existing -> existing.getStatus() != JobStatus.COMPLETED)
+                .orElseGet(this::newCheckpoint);
+        checkpoint.setStatus(JobStatus.RUNNING);
+        checkpoint.setError(null);
+        runStartedAt = LocalDateTime.now();
+        scannedAtRunStart = checkpoint.getScanned();
+
+        ExecutorService lookups = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, JOB_ID + "-lookup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Cache<String, Optional<UserDTO>> users = Caffeine.newBuilder().maximumSize(10_000).build();
+
+        boolean leaseLost = false;
+        try (Stream<Booking> bookings = mongoTemplate.stream(pendingQuery(checkpoint.getLastBookingId()), Booking.class)) {
+            List<Booking> batch = new ArrayList<>(batchSize);
+            for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                batch.add(booking);
+                if (batch.size() == batchSize) {
+                    processBatch(batch, checkpoint, users, lookups);
+                    batch.clear();
+                    if (!jobLeaseService.renew(JOB_ID, leaseDuration)) {
+                        // the new holder resumes from the checkpoint processBatch just saved
+                        leaseLost = true;
+                        return;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                processBatch(batch, checkpoint, users, lookups);
+            }
+
+            checkpoint.setStatus(JobStatus.COMPLETED);
+            checkpoint.setFinishedAt(LocalDateTime.now());
+            log.info("{} finished: scanned {}, fixed {}, failed {}", JOB_ID,
+                    checkpoint.getScanned(), checkpoint.getFixed(), checkpoint.getFailed());
+        } catch (Exception e) {
+            log.error("{} stopped after booking {}: {}", JOB_ID, checkpoint.getLastBookingId(), e.getMessage());
+            checkpoint.setStatus(JobStatus.FAILED);
+            checkpoint.setError(e.getMessage());
+        } finally {
+            lookups.shutdownNow();
+            try {
+                if (!leaseLost) {
+                    checkpoint.setUpdatedAt(LocalDateTime.now());
+                    mongoTemplate.save(checkpoint);
+                    jobLeaseService.release(JOB_ID);
+                }
+            } finally {
+                active.set(false);
+            }
+        }
+    }
+
+    private void processBatch(List<Booking> batch, MigrationCheckpoint checkpoint,
+                              Cache<String, Optional<UserDTO>> users, ExecutorService lookups) {
+        Set<String> unresolved = batch.stream()
+                .map(Booking::getCustomerId)
+                .filter(id -> id != null && users.getIfPresent(id) == null)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<String, CompletableFuture<Optional<UserDTO>>> pending = new HashMap<>();
+        for (String customerId : unresolved) {
+            pending.put(customerId, CompletableFuture.supplyAsync(() -> lookup(customerId), lookups));
+        }
+        pending.forEach((customerId, future) -> users.put(customerId, future.join()));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+        int fixes = 0;
+        for (Booking booking : batch) {
+            Optional<UserDTO> user = booking.getCustomerId() == null
+                    ? Optional.empty()
+                    : users.getIfPresent(booking.getCustomerId());
+            if (user == null || user.isEmpty()) {
+                checkpoint.setFailed(checkpoint.getFailed() + 1);
+                continue;
+            }
+            bulk.updateOne(Query.query(Criteria.where("_id").is(booking.getId())),
+                    new Update().set("customerName", user.get().getFullName())
+                            .set("customerEmail", user.get().getEmail()));
+            fixes++;
+        }
+        if (fixes > 0) {
+            bulk.execute();
+        }
+
+        checkpoint.setScanned(checkpoint.getScanned() + batch.size());
+        checkpoint.setFixed(checkpoint.getFixed() + fixes);
+        checkpoint.setLastBookingId(batch.get(batch.size() - 1).getId());
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(checkpoint);
+    }
+
+    private Optional<UserDTO> lookup(String customerId) {
+        try {
+            return Optional.ofNullable(userClient.getUser(customerId));
+        } catch (Exception e) {
+            log.warn("Could not resolve customer {}: {}", customerId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Query pendingQuery(String afterId) {
+        Criteria criteria = new Criteria().orOperator(
+                Criteria.where("customerName").is(null),
+                Criteria.where("customerEmail").is(null));
+        if (afterId != null) {
+            criteria = new Criteria().andOperator(Criteria.where("_id").gt(afterId), criteria);
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("_id")))
+                .cursorBatchSize(batchSize);
+        query.fields().include("customerId");
+        return query;
+    }
+
+    private Optional<MigrationCheckpoint> checkpoint() {
+        return Optional.ofNullable(mongoTemplate.findById(JOB_ID, MigrationCheckpoint.class));
+    }
+
+    private MigrationCheckpoint newCheckpoint() {
+        MigrationCheckpoint checkpoint = new MigrationCheckpoint();
+        checkpoint.setId(JOB_ID);
+        checkpoint.setStartedAt(LocalDateTime.now());
+        return checkpoint;
+    }
+}
@@ -0,0 +1,169 @@
+package com.utkarshhh.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.model.Booking;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels PENDING bookings whose checkout hold lapsed without payment. The
+ * lease holder sweeps expired holds through the partial hold_expiry index in
+ * batches, cancelling each batch with one update; slot checks that hit a
+ * conflict also release the expired holds in their window straight away,
+ * so an abandoned checkout never blocks a slot until the next sweep.
+ */
+@Slf4j
+@Service
+public class HoldExpiryService {
+
+    private static final String LEASE_ID = "hold-expiry";
+
+    private final MongoTemplate mongoTemplate;
+    private final AvailabilityEngine availabilityEngine;
+    private final SalonReportRollupService salonReportRollupService;
+    private final AvailabilityHeatmapService availabilityHeatmapService;
+    private final JobLeaseService jobLeaseService;
+    private final Duration defaultTtl;
+    private final int batchSize;
+    private final Duration leaseDuration;
+
+    public HoldExpiryService(MongoTemplate mongoTemplate,
+                             AvailabilityEngine availabilityEngine,
+                             SalonReportRollupService salonReportRollupService,
+                             AvailabilityHeatmapService availabilityHeatmapService,
+                             JobLeaseService jobLeaseService,
+                             @Value("${booking.hold.default-ttl:15m}") Duration defaultTtl,
+                             @Value("${booking.hold.batch-size:500}") int batchSize,
+                             @Value("${booking.hold.lease:2m}") Duration leaseDuration) {
+        this.mongoTemplate = mongoTemplate;
+        this.availabilityEngine = availabilityEngine;
+        this.salonReportRollupService = salonReportRollupService;
+        this.availabilityHeatmapService = availabilityHeatmapService;
+        this.jobLeaseService = jobLeaseService;
+        this.defaultTtl = defaultTtl;
+        this.batchSize = batchSize;
+        this.leaseDuration = leaseDuration;
+    }
+
+    /**
+     * When a booking made now stops holding its slot unpaid, or null when
+     * the salon's holds never expire.
+     */
+    public LocalDateTime holdExpiry(SalonDTO salonDTO, LocalDateTime now) {
+        Duration ttl = salonDTO.getHoldMinutes() != null
+                ? Duration.ofMinutes(salonDTO.getHoldMinutes())
+                : defaultTtl;
+        return ttl.isZero() || ttl.isNegative() ? null : now.plus(ttl);
+    }
+
+    @Scheduled(initialDelayString = "${booking.hold.initial-delay:PT1M}",
+            fixedDelayString = "${booking.hold.sweep-interval:PT1M}")
+    public void sweep() {
+        try {
+            if (!jobLeaseService.acquire(LEASE_ID, leaseDuration)) {
+                return;
+            }
+            int expired;
+            do {
+                expired = sweepBatch();
+            } while (expired == batchSize && jobLeaseService.renew(LEASE_ID, leaseDuration));
+        } catch (Exception e) {
+            log.warn("Hold expiry sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cancels the expired holds overlapping [from, to) at the salon. Returns
+     * how many were released, so a caller that found the window taken knows
+     * whether checking again can succeed.
+     */
+    public int releaseExpired(String salonId, LocalDateTime from, LocalDateTime to) {
+        Criteria window = Criteria.where("salonId").is(salonId)
+                .and("startTime").lt(to)
+                .and("endTime").gt(from);
+
+        LocalDateTime now = LocalDateTime.now();
+        int released = 0;
+        for (Booking held : findExpired(window, now)) {
+            UpdateResult result = mongoTemplate.updateFirst(expiring(Criteria.where("_id").is(held.getId()), now),
+                    expire(now), Booking.class);
+            if (result.getModifiedCount() == 1) {
+                onExpired(held);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    private int sweepBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> held = findExpired(new Criteria(), now);
+        if (held.isEmpty()) {
+            return 0;
+        }
+
+        List<String> ids = held.stream().map(Booking::getId).collect(Collectors.toList());
+        // unsetting holdExpiresAt marks what this update cancelled; other transitions leave it in place
+        mongoTemplate.updateMulti(expiring(Criteria.where("_id").in(ids), now), expire(now), Booking.class);
+
+        Query cancelled = Query.query(Criteria.where("_id").in(ids)
+                .and("status").is(BookingStatus.CANCELLED)
+                .and("holdExpiresAt").exists(false));
+        cancelled.fields().include("_id");
+        Set<String> expiredIds = mongoTemplate.find(cancelled, Booking.class).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+
+        held.stream()
+                .filter(booking -> expiredIds.contains(booking.getId()))
+                .forEach(this::onExpired);
+        if (!expiredIds.isEmpty()) {
+            log.info("Expired {} unpaid booking holds", expiredIds.size());
+        }
+        return expiredIds.size();
+    }
+
+    private static Query expiring(Criteria scope, LocalDateTime now) {
+        return Query.query(scope.and("status").is(BookingStatus.PENDING).and("holdExpiresAt").lte(now));
+    }
+
+    // expiredAt tells a payment that arrives afterwards that the hold lapsed, not the customer cancelling
+    private static Update expire(LocalDateTime now) {
+        return new Update()
+                .set("status", BookingStatus.CANCELLED)
+                .unset("holdExpiresAt")
+                .set("expiredAt", now);
+    }
+
+    private List<Booking> findExpired(Criteria scope, LocalDateTime now) {
+        Query query = new Query(scope)
+                .addCriteria(Criteria.where("status").is(BookingStatus.PENDING)
+                        .and("holdExpiresAt").lte(now))
+                .with(Sort.by("holdExpiresAt"))
+                .limit(batchSize);
+        query.fields().include("salonId", "startTime", "endTime", "totalPrice", "status");
+        return mongoTemplate.find(query, Booking.class);
+    }
+
+    private void onExpired(Booking booking) {
+        booking.setStatus(BookingStatus.CANCELLED);
+        availabilityEngine.onStatusChanged(booking, BookingStatus.PENDING);
+        salonReportRollupService.onStatusChanged(booking, BookingStatus.PENDING);
+        availabilityHeatmapService.onBookingChanged(booking);
+    }
+}
@@ -0,0 +1,255 @@
+package com.utkarshhh.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.result.UpdateResult;
+import com.utkarshhh.model.IdempotencyRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays its stored
+ * response afterwards. Completed responses are kept in a TTL-indexed
+ * collection with a small LRU in front of it. Duplicates arriving while the
+ * first request is still running wait for its result: on this instance
+ * through a shared future, across instances by polling the IN_PROGRESS
+ * record. Server errors are not stored, so the client can retry them.
+ *
+ * <p>An IN_PROGRESS record older than the wait timeout is taken to belong to
+ * an instance that died mid-request, and the next duplicate takes it over
+ * instead of being refused until the record expires. The record's
+ * {@code createdAt} identifies the current owner, so a slow original that
+ * finishes after a takeover does not overwrite its successor's record.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final long POLL_MILLIS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    private final Cache<String, IdempotencyRecord> completed;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(MongoTemplate mongoTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${booking.idempotency.cache-size:10000}") long cacheSize,
+                              @Value("${booking.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofHours(24))
+                .build();
+    }
+
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        String id = scope + ":" + key;
+        String requestHash = hash(request);
+
+        IdempotencyRecord cached = completed.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return await(running, requestHash);
+        }
+
+        try {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setId(id);
+            record.setState(IdempotencyRecord.IN_PROGRESS);
+            record.setRequestHash(requestHash);
+            // Mongo keeps milliseconds, and the timestamp is compared as the owner token
+            record.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+            try {
+                mongoTemplate.insert(record);
+            } catch (DuplicateKeyException e) {
+                IdempotencyRecord existing = awaitStored(id);
+                if (existing != null && IdempotencyRecord.COMPLETED.equals(existing.getState())) {
+                    completed.put(id, existing);
+                    mine.complete(existing);
+                    return replay(existing, requestHash);
+                }
+                if (existing != null && !existing.getRequestHash().equals(requestHash)) {
+                    mine.complete(null);
+                    return replay(existing, requestHash);
+                }
+                if (existing == null || !takeOver(existing, record)) {
+                    mine.complete(null);
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body("A request with this Idempotency-Key is still in progress or did not complete; retry it");
+                }
+                log.warn("Took over idempotent request {} left in progress since {}", id, existing.getCreatedAt());
+            }
+
+            ResponseEntity<?> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                release(record);
+                throw e;
+            }
+
+            if (response.getStatusCode().is5xxServerError()) {
+                release(record);
+                mine.complete(null);
+                return response;
+            }
+
+            if (store(record, response)) {
+                completed.put(id, record);
+            }
+            mine.complete(record);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<IdempotencyRecord> running, String requestHash) {
+        try {
+            IdempotencyRecord record = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (record == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("The original request with this Idempotency-Key did not complete; retry it");
+            }
+            return replay(record, requestHash);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("The original request with this Idempotency-Key failed; retry it");
+        }
+    }
+
+    // another instance owns the key: wait for it to finish, give the key up or
+    // go stale, returning the record as last seen
+    private IdempotencyRecord awaitStored(String id) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        IdempotencyRecord existing;
+        do {
+            existing = mongoTemplate.findById(id, IdempotencyRecord.class);
+            if (existing == null || IdempotencyRecord.COMPLETED.equals(existing.getState())
+                    || existing.getCreatedAt().isBefore(LocalDateTime.now().minus(waitTimeout))) {
+                return existing;
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        } while (System.nanoTime() < deadline);
+        return existing;
+    }
+
+    // claims a record whose owner has run past the wait timeout; only one duplicate wins
+    private boolean takeOver(IdempotencyRecord stale, IdempotencyRecord record) {
+        if (stale.getCreatedAt().isAfter(record.getCreatedAt().minus(waitTimeout))) {
+            return false;
+        }
+        UpdateResult result = mongoTemplate.updateFirst(ownedBy(stale),
+                new Update().set("createdAt", record.getCreatedAt()), IdempotencyRecord.class);
+        return result.getModifiedCount() == 1;
+    }
+
+    private void release(IdempotencyRecord record) {
+        mongoTemplate.remove(ownedBy(record), IdempotencyRecord.class);
+    }
+
+    private static Query ownedBy(IdempotencyRecord record) {
+        return Query.query(Criteria.where("_id").is(record.getId())
+                .and("state").is(IdempotencyRecord.IN_PROGRESS)
+                .and("createdAt").is(record.getCreatedAt()));
+    }
+
+    private boolean store(IdempotencyRecord record, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        record.setState(IdempotencyRecord.COMPLETED);
+        record.setHttpStatus(response.getStatusCode().value());
+        if (body instanceof String text) {
+            record.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            record.setBody(text);
+        } else if (body != null) {
+            record.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            try {
+                record.setBody(objectMapper.writeValueAsString(body));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not store idempotent response", e);
+            }
+        }
+        UpdateResult result = mongoTemplate.updateFirst(ownedBy(record), new Update()
+                .set("state", record.getState())
+                .set("httpStatus", record.getHttpStatus())
+                .set("contentType", record.getContentType())
+                .set("body", record.getBody()), IdempotencyRecord.class);
+        if (result.getMatchedCount() == 0) {
+            log.warn("Idempotent request {} was taken over before it completed; its response is not stored",
+                    record.getId());
+            return false;
+        }
+        return true;
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("Idempotency-Key was already used with a different request");
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getHttpStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (record.getContentType() != null) {
+            builder.contentType(MediaType.parseMediaType(record.getContentType()));
+        }
+        return builder.body(record.getBody());
+    }
+
+    String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.utkarshhh.service.Impl;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.OccupancyDay;
+import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.service.AvailabilityEngine;
+import com.utkarshhh.util.OccupancyBitmap;
+import com.utkarshhh.util.SlotGranules;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one {@link OccupancyDay} per salon and date. A reservation is a single
+ * findAndModify per day that matches only while the target bits are clear
+ * ({@code $bitsAllClear}) and sets them with {@code $bit}, so two replicas can
+ * never both win the same granule. A day is seeded from existing bookings the
+ * first time it is touched.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "booking.availability.engine", havingValue = "bitmap")
+public class BitmapAvailabilityEngine implements AvailabilityEngine {
+
+    private static final int WORDS = 5;
+    private static final int GRANULES_PER_DAY = 24 * 60 / SlotGranules.GRANULE_MINUTES;
+    private static final long GRANULE_SECONDS = SlotGranules.GRANULE_MINUTES * 60L;
+    private static final int MAX_SEEDED_DAYS = 100_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final BookingRepository bookingRepository;
+    private final Set<String> seededDays = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean isFree(String salonId, LocalDateTime start, LocalDateTime end) {
+        for (LocalDate day : days(start, end)) {
+            long[] words = load(salonId, day).words();
+            long[] masks = masks(day, start, end);
+            for (int i = 0; i < WORDS; i++) {
+                if ((words[i] & masks[i]) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public OccupancyBitmap occupancy(String salonId, LocalDateTime from, LocalDateTime to) {
+        OccupancyBitmap bitmap = new OccupancyBitmap(from, to);
+
+        for (LocalDate day : days(from, to)) {
+            long[] words = load(salonId, day).words();
+            LocalDateTime dayStart = day.atStartOfDay();
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    int granule = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+                    LocalDateTime slot = dayStart.plusMinutes((long) granule * SlotGranules.GRANULE_MINUTES);
+                    bitmap.occupy(slot, slot.plusMinutes(SlotGranules.GRANULE_MINUTES));
+                    word &= word - 1;
+                }
+            }
+        }
+        return bitmap;
+    }
+
+    @Override
+    public void reserve(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) throws Exception {
+        List<LocalDate> reserved = new ArrayList<>();
+
+        for (LocalDate day : days(start, end)) {
+            ensureSeeded(salonId, day);
+            long[] masks = masks(day, start, end);
+
+            Query query = Query.query(Criteria.where("_id").is(dayId(salonId, day)));
+            Update update = new Update();
+            for (int i = 0; i < WORDS; i++) {
+                if (masks[i] != 0) {
+                    query.addCriteria(Criteria.where("w" + i).bits().allClear(positions(masks[i])));
+                    update.bitwise("w" + i).or(masks[i]);
+                }
+            }
+
+            if (mongoTemplate.findAndModify(query, update, OccupancyDay.class) == null) {
+                reserved.forEach(done -> clear(salonId, done, start, end));
+                throw new Exception("Slot not available. Please choose a different time.");
+            }
+            reserved.add(day);
+        }
+    }
+
+    @Override
+    public void release(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        for (LocalDate day : days(start, end)) {
+            clear(salonId, day, start, end);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(Booking booking, BookingStatus previousStatus) {
+        // cancelled is final, so occupancy only ever needs clearing
+        if (booking.getStatus() == BookingStatus.CANCELLED && previousStatus != BookingStatus.CANCELLED) {
+            release(booking.getSalonId(), booking.getId(), booking.getStartTime(), booking.getEndTime());
+        }
+    }
+
+    private void clear(String salonId, LocalDate day, LocalDateTime start, LocalDateTime end) {
+        long[] masks = masks(day, start, end);
+        Update update = new Update();
+        for (int i = 0; i < WORDS; i++) {
+            if (masks[i] != 0) {
+                update.bitwise("w" + i).and(~masks[i]);
+            }
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(dayId(salonId, day))), update, OccupancyDay.class);
+    }
+
+    private OccupancyDay load(String salonId, LocalDate day) {
+        ensureSeeded(salonId, day);
+        OccupancyDay occupancy = mongoTemplate.findById(dayId(salonId, day), OccupancyDay.class);
+        return occupancy != null ? occupancy : new OccupancyDay();
+    }
+
+    private void ensureSeeded(String salonId, LocalDate day) {
+        String id = dayId(salonId, day);
+        if (seededDays.contains(id)) {
+            return;
+        }
+
+        long[] words = new long[WORDS];
+        LocalDateTime dayStart = day.atStartOfDay();
+        for (Booking booking : bookingRepository.findActiveBySalonIdOverlapping(
+                salonId, dayStart, dayStart.plusDays(1), LocalDateTime.now())) {
+            long[] masks = masks(day, booking.getStartTime(), booking.getEndTime());
+            for (int i = 0; i < WORDS; i++) {
+                words[i] |= masks[i];
+            }
+        }
+
+        Update update = new Update()
+                .set("salonId", salonId)
+                .set("date", day)
+                .set("seeded", true);
+        for (int i = 0; i < WORDS; i++) {
+            update.bitwise("w" + i).or(words[i]);
+        }
+
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(id).and("seeded").ne(true)),
+                    update, OccupancyDay.class);
+        } catch (DuplicateKeyException e) {
+            // another replica seeded the day first
+        }
+
+        if (seededDays.size() >= MAX_SEEDED_DAYS) {
+            seededDays.clear();
+        }
+        seededDays.add(id);
+    }
+
+    private static long[] masks(LocalDate day, LocalDateTime start, LocalDateTime end) {
+        long dayStart = day.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long s = start.toEpochSecond(ZoneOffset.UTC) - dayStart;
+        long e = Math.max(end.toEpochSecond(ZoneOffset.UTC), start.toEpochSecond(ZoneOffset.UTC) + 1) - dayStart;
+
+        int from = (int) Math.max(0, Math.floorDiv(s, GRANULE_SECONDS));
+        int to = (int) Math.min(GRANULES_PER_DAY, Math.max(0, -Math.floorDiv(-e, GRANULE_SECONDS)));
+
+        long[] masks = new long[WORDS];
+        for (int granule = from; granule < to; granule++) {
+            masks[granule / Long.SIZE] |= 1L << (granule % Long.SIZE);
+        }
+        return masks;
+    }
+
+    // $bitsAllClear takes numeric masks only up to 32 bits, so pass bit positions
+    private static List<Integer> positions(long mask) {
+        List<Integer> positions = new ArrayList<>(Long.bitCount(mask));
+        for (long word = mask; word != 0; word &= word - 1) {
+            positions.add(Long.numberOfTrailingZeros(word));
+        }
+        return positions;
+    }
+
+    private static List<LocalDate> days(LocalDateTime start, LocalDateTime end) {
+        List<LocalDate> days = new ArrayList<>();
+        LocalDate last = end.minusSeconds(1).toLocalDate();
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(last) || days.isEmpty(); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    private static String dayId(String salonId, LocalDate day) {
+        return salonId + ":" + day;
+    }
+}
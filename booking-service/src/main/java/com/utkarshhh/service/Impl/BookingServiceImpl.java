@@ -3,32 +3,67 @@ package com.utkarshhh.service.Impl;
 import com.utkarshhh.client.SalonClient;
 import com.utkarshhh.client.ServiceClient;
 import com.utkarshhh.client.UserClient;
+import com.utkarshhh.config.RabbitMQConfig;
 import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.BookingView;
 import com.utkarshhh.domain.PaymentStatus;
+import com.utkarshhh.dto.BatchBookingResultDTO;
 import com.utkarshhh.dto.BookingDTO;
+import com.utkarshhh.dto.BookingNotificationDTO;
+import com.utkarshhh.dto.BookingPageDTO;
+import com.utkarshhh.dto.BookingPageRequest;
+import com.utkarshhh.dto.BookingRequest;
+import com.utkarshhh.dto.BookingSummaryDTO;
+import com.utkarshhh.dto.DayAvailabilityDTO;
 import com.utkarshhh.dto.SalonDTO;
 import com.utkarshhh.dto.ServiceDTO;
 import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.exception.BookingTransitionException;
+import com.utkarshhh.mapper.BookingMapper;
 import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.OutboxMessage;
 import com.utkarshhh.model.SalonReport;
 import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.service.AvailabilityEngine;
+import com.utkarshhh.service.AvailabilityHeatmapService;
 import com.utkarshhh.service.BookingService;
+import com.utkarshhh.service.HoldExpiryService;
+import com.utkarshhh.service.SalonReportRollupService;
+import com.utkarshhh.util.BookingCursor;
+import com.utkarshhh.util.OccupancyBitmap;
+import com.utkarshhh.util.SlotGranules;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
+    private final AvailabilityEngine availabilityEngine;
+    private final SalonReportRollupService salonReportRollupService;
+    private final HoldExpiryService holdExpiryService;
+    private final AvailabilityHeatmapService availabilityHeatmapService;
 
     @Autowired
     private UserClient userClient;
@@ -39,26 +74,226 @@ public class BookingServiceImpl implements BookingService {
     @Autowired
     private ServiceClient serviceClient;
 
+    @Value("${booking.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${booking.pagination.max-page-size:200}")
+    private int maxPageSize;
+
     @Override
     public Booking createBooking(Booking booking,
                                  UserDTO userDTO,
                                  SalonDTO salonDTO,
                                  Set<ServiceDTO> serviceDTOSet) throws Exception {
 
-        int totalDuration = serviceDTOSet.stream()
-                .mapToInt(ServiceDTO::getDuration)
-                .sum();
-
+        prepare(booking, userDTO, salonDTO, serviceDTOSet);
         LocalDateTime bookingStartTime = booking.getStartTime();
-        LocalDateTime bookingEndTime = bookingStartTime.plusMinutes(totalDuration);
+        LocalDateTime bookingEndTime = booking.getEndTime();
+
+        isTimeSlotAvailable(salonDTO, bookingStartTime, bookingEndTime);
+
+        availabilityEngine.reserve(salonDTO.getId(), booking.getId(), bookingStartTime, bookingEndTime);
+
+        Booking saved;
+        try {
+            saved = bookingRepository.save(booking);
+        } catch (RuntimeException e) {
+            availabilityEngine.release(salonDTO.getId(), booking.getId(), bookingStartTime, bookingEndTime);
+            throw e;
+        }
+
+        salonReportRollupService.onBookingCreated(saved);
+        availabilityHeatmapService.onBookingChanged(saved);
+        return saved;
+    }
+
+    @Override
+    public List<BatchBookingResultDTO> createBookings(SalonDTO salonDTO,
+                                                      UserDTO defaultCustomer,
+                                                      List<BookingRequest> requests,
+                                                      Map<String, ServiceDTO> services,
+                                                      String seriesId) {
+        List<BatchBookingResultDTO> results = new ArrayList<>();
+        List<Booking> candidates = new ArrayList<>();
+        Map<String, BatchBookingResultDTO> resultsById = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            BatchBookingResultDTO result = new BatchBookingResultDTO();
+            result.setIndex(i);
+            results.add(result);
+            try {
+                Booking booking = toBooking(requests.get(i), salonDTO, defaultCustomer, services);
+                booking.setSeriesId(seriesId);
+                if (seriesId != null) {
+                    // occurrences are paid when they come due, not at checkout
+                    booking.setHoldExpiresAt(null);
+                }
+                checkWorkingHours(salonDTO, booking.getStartTime(), booking.getEndTime());
+                candidates.add(booking);
+                resultsById.put(booking.getId(), result);
+            } catch (Exception e) {
+                result.setError(e.getMessage());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return results;
+        }
+
+        // one occupancy read per run of consecutive days the batch touches, so
+        // items weeks apart do not load every day in between
+        Map<LocalDate, DayRun> runs = dayRuns(candidates);
+        for (DayRun run : new LinkedHashSet<>(runs.values())) {
+            List<Booking> inRun = candidates.stream()
+                    .filter(booking -> runs.get(booking.getStartTime().toLocalDate()) == run)
+                    .toList();
+            run.existing = availabilityEngine.occupancy(salonDTO.getId(), run.from, run.to);
+            if (anyTaken(run.existing, inRun)
+                    && holdExpiryService.releaseExpired(salonDTO.getId(), run.from, run.to) > 0) {
+                run.existing = availabilityEngine.occupancy(salonDTO.getId(), run.from, run.to);
+            }
+            run.batch = new OccupancyBitmap(run.from, run.to);
+        }
+
+        List<Booking> accepted = new ArrayList<>();
+        for (Booking booking : candidates) {
+            BatchBookingResultDTO result = resultsById.get(booking.getId());
+            DayRun run = runs.get(booking.getStartTime().toLocalDate());
+            // occupancy marks only the granules with no capacity left, so this never refuses a free chair
+            if (!run.existing.isFree(booking.getStartTime(), booking.getEndTime())) {
+                result.setError("Slot not available. Please choose a different time.");
+                continue;
+            }
+            // earlier items are already reserved, so the engine weighs them against the salon's capacity
+            try {
+                availabilityEngine.reserve(salonDTO.getId(), booking.getId(),
+                        booking.getStartTime(), booking.getEndTime());
+            } catch (Exception e) {
+                result.setError(run.batch.isFree(booking.getStartTime(), booking.getEndTime())
+                        ? e.getMessage() : "Overlaps another booking in this batch");
+                continue;
+            }
+            run.batch.occupy(booking.getStartTime(), booking.getEndTime());
+            accepted.add(booking);
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
 
-        Boolean isSlotAvailable = isTimeSlotAvailable(salonDTO, bookingStartTime, bookingEndTime);
+        Map<String, String> failed;
+        try {
+            failed = bookingRepository.insertAll(accepted);
+        } catch (RuntimeException e) {
+            // which rows were stored is unknown, so their claims stay; the orphan sweeps free those of missing ones
+            for (Booking booking : accepted) {
+                resultsById.get(booking.getId()).setError(e.getMessage());
+            }
+            return results;
+        }
 
-        int totalPrice = serviceDTOSet.stream()
+        for (Booking booking : accepted) {
+            String error = failed.get(booking.getId());
+            if (error != null) {
+                availabilityEngine.release(salonDTO.getId(), booking.getId(),
+                        booking.getStartTime(), booking.getEndTime());
+                resultsById.get(booking.getId()).setError(error);
+                continue;
+            }
+            salonReportRollupService.onBookingCreated(booking);
+            availabilityHeatmapService.onBookingChanged(booking);
+            BatchBookingResultDTO result = resultsById.get(booking.getId());
+            result.setCreated(true);
+            result.setBooking(BookingMapper.toDTO(booking));
+        }
+        return results;
+    }
+
+    // the days a batch touches, grouped into runs of consecutive days
+    private static final class DayRun {
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private OccupancyBitmap existing;
+        private OccupancyBitmap batch;
+    }
+
+    private static Map<LocalDate, DayRun> dayRuns(List<Booking> bookings) {
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (Booking booking : bookings) {
+            days.add(booking.getStartTime().toLocalDate());
+            LocalDate last = SlotGranules.ceil(booking.getEndTime()).minusNanos(1).toLocalDate();
+            for (LocalDate day = booking.getStartTime().toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+                days.add(day);
+            }
+        }
+
+        Map<LocalDate, DayRun> runs = new HashMap<>();
+        DayRun run = null;
+        for (LocalDate day : days) {
+            if (run == null || !run.to.equals(day.atStartOfDay())) {
+                run = new DayRun();
+                run.from = day.atStartOfDay();
+            }
+            run.to = day.plusDays(1).atStartOfDay();
+            runs.put(day, run);
+        }
+        return runs;
+    }
+
+    private static boolean anyTaken(OccupancyBitmap occupancy, List<Booking> bookings) {
+        return bookings.stream()
+                .anyMatch(booking -> !occupancy.isFree(booking.getStartTime(), booking.getEndTime()));
+    }
+
+    private Booking toBooking(BookingRequest request,
+                              SalonDTO salonDTO,
+                              UserDTO defaultCustomer,
+                              Map<String, ServiceDTO> services) throws Exception {
+        if (request.getStartTime() == null) {
+            throw new Exception("startTime is required");
+        }
+        if (request.getServiceIds() == null || request.getServiceIds().isEmpty()) {
+            throw new Exception("At least one service is required");
+        }
+        Set<String> missing = request.getServiceIds().stream()
+                .filter(id -> !services.containsKey(id))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!missing.isEmpty()) {
+            throw new Exception("Service not found with ids: " + String.join(", ", missing));
+        }
+
+        UserDTO customer = defaultCustomer;
+        if (request.getCustomerId() != null && !request.getCustomerId().equals(defaultCustomer.getId())) {
+            // front-desk bookings for walk-in customers; only the salon's owner may make them
+            if (salonDTO.getOwnerId() == null
+                    || !String.valueOf(salonDTO.getOwnerId()).equals(defaultCustomer.getId())) {
+                throw new Exception("Only the salon owner can book on behalf of another customer");
+            }
+            customer = new UserDTO();
+            customer.setId(request.getCustomerId());
+            customer.setFullName(request.getCustomerName());
+            customer.setEmail(request.getCustomerEmail());
+        }
+
+        Booking booking = new Booking();
+        booking.setStartTime(request.getStartTime());
+        booking.setPaymentMethod(request.getPaymentMethod());
+        return prepare(booking, customer, salonDTO, request.getServiceIds().stream()
+                .map(services::get)
+                .collect(Collectors.toSet()));
+    }
+
+    private Booking prepare(Booking booking,
+                            UserDTO userDTO,
+                            SalonDTO salonDTO,
+                            Collection<ServiceDTO> serviceDTOs) {
+        int totalDuration = serviceDTOs.stream()
+                .mapToInt(ServiceDTO::getDuration)
+                .sum();
+
+        int totalPrice = serviceDTOs.stream()
                 .mapToInt(ServiceDTO::getPrice)
                 .sum();
 
-        Set<String> idList = serviceDTOSet.stream()
+        Set<String> idList = serviceDTOs.stream()
                 .map(ServiceDTO::getId)
                 .collect(Collectors.toSet());
 
@@ -67,67 +302,219 @@ public class BookingServiceImpl implements BookingService {
         booking.setStatus(BookingStatus.PENDING);
         booking.setPaymentStatus(booking.getPaymentStatus() != null ?
                 booking.getPaymentStatus() : PaymentStatus.PENDING);
-        booking.setStartTime(bookingStartTime);
-        booking.setEndTime(bookingEndTime);
+        booking.setEndTime(booking.getStartTime().plusMinutes(totalDuration));
         booking.setTotalPrice(totalPrice);
         booking.setCustomerId(userDTO.getId());
         booking.setCustomerName(userDTO.getFullName());  // or getName() depending on your UserDTO
         booking.setCustomerEmail(userDTO.getEmail());
 
-        return bookingRepository.save(booking);
+        if (booking.getId() == null) {
+            booking.setId(new ObjectId().toHexString());
+        }
+        booking.setHoldExpiresAt(holdExpiryService.holdExpiry(salonDTO, LocalDateTime.now()));
+        booking.setOutbox(notification(booking, salonDTO, serviceDTOs));
+        return booking;
+    }
+
+    // the confirmation email, queued in the booking itself and published by OutboxRelay
+    private OutboxMessage notification(Booking booking, SalonDTO salonDTO, Collection<ServiceDTO> serviceDTOs) {
+        String serviceNames = serviceDTOs.stream()
+                .map(ServiceDTO::getName)
+                .collect(Collectors.joining(", "));
+
+        OutboxMessage message = new OutboxMessage();
+        message.setExchange(RabbitMQConfig.EXCHANGE);
+        message.setRoutingKey(RabbitMQConfig.BOOKING_ROUTING_KEY);
+        message.setPayload(new BookingNotificationDTO(
+                booking.getId(),
+                booking.getCustomerEmail(),
+                booking.getCustomerName(),
+                salonDTO.getName(),
+                serviceNames,
+                booking.getStartTime().toString(),
+                booking.getTotalPrice()));
+        message.setNextAttemptAt(LocalDateTime.now());
+        return message;
     }
 
     @Override
     public Booking updateBooking(String bookingId, BookingStatus status) throws Exception {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new Exception("Booking not found with id: " + bookingId));
+        Booking booking = bookingRepository.compareAndSetStatus(bookingId, status.allowedSources(), status,
+                null, null);
+        if (booking == null) {
+            Booking current = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new Exception("Booking not found with id: " + bookingId));
+            throw new BookingTransitionException(bookingId, current.getStatus(), status);
+        }
+        return applied(booking, status, null);
+    }
+
+    @Override
+    public Booking updatePaymentStatus(String bookingId, PaymentStatus paymentStatus) throws Exception {
+        BookingStatus target = paymentStatus.bookingStatus();
+        Booking booking = bookingRepository.compareAndSetStatus(bookingId,
+                target == null ? null : target.allowedSources(), target,
+                paymentStatus.allowedSources(), paymentStatus);
+        if (booking == null) {
+            Booking current = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new Exception("Booking not found with id: " + bookingId));
+            // a redelivered payment result for a booking already moved by it
+            if (current.getPaymentStatus() == paymentStatus && (target == null || current.getStatus() == target)) {
+                return current;
+            }
+            if (current.getStatus() == BookingStatus.CANCELLED && current.getExpiredAt() != null) {
+                return settledAfterExpiry(current, paymentStatus);
+            }
+            throw new BookingTransitionException(bookingId, current.getStatus(), current.getPaymentStatus(),
+                    paymentStatus);
+        }
+        return applied(booking, target, paymentStatus);
+    }
+
+    /**
+     * Records a payment result that arrived after the hold lapsed and the
+     * sweep cancelled the booking. Money taken for it is not lost: the booking
+     * is confirmed again when its slot is still free, and otherwise left
+     * cancelled with the payment marked REFUND_DUE.
+     */
+    private Booking settledAfterExpiry(Booking expired, PaymentStatus paymentStatus) throws Exception {
+        Booking booking = bookingRepository.compareAndSetStatus(expired.getId(), Set.of(BookingStatus.CANCELLED),
+                null, paymentStatus.allowedSources(), paymentStatus);
+        if (booking == null) {
+            Booking current = bookingRepository.findById(expired.getId()).orElseThrow(
+                    () -> new Exception("Booking not found with id: " + expired.getId()));
+            // a redelivery while the first delivery reclaims the slot, or after it flagged the refund
+            if (current.getPaymentStatus() == paymentStatus
+                    || paymentStatus == PaymentStatus.PAID && current.getPaymentStatus() == PaymentStatus.REFUND_DUE) {
+                return current;
+            }
+            throw new BookingTransitionException(expired.getId(), current.getStatus(), current.getPaymentStatus(),
+                    paymentStatus);
+        }
+        booking.setPaymentStatus(paymentStatus);
+        if (paymentStatus != PaymentStatus.PAID) {
+            return booking;
+        }
+
+        if (reclaim(booking)) {
+            Booking previous = bookingRepository.compareAndSetStatus(booking.getId(),
+                    Set.of(BookingStatus.CANCELLED), BookingStatus.CONFIRM, Set.of(PaymentStatus.PAID), null);
+            if (previous != null) {
+                return applied(previous, BookingStatus.CONFIRM, PaymentStatus.PAID);
+            }
+            availabilityEngine.release(booking.getSalonId(), booking.getId(),
+                    booking.getStartTime(), booking.getEndTime());
+        }
+
+        log.warn("Booking {} was paid after its hold expired and its slot was taken; refund due", booking.getId());
+        bookingRepository.compareAndSetStatus(booking.getId(), Set.of(BookingStatus.CANCELLED), null,
+                Set.of(PaymentStatus.PAID), PaymentStatus.REFUND_DUE);
+        booking.setPaymentStatus(PaymentStatus.REFUND_DUE);
+        return booking;
+    }
+
+    private boolean reclaim(Booking booking) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                availabilityEngine.reserve(booking.getSalonId(), booking.getId(),
+                        booking.getStartTime(), booking.getEndTime());
+                return true;
+            } catch (Exception e) {
+                // another lapsed hold may be sitting on the slot; one retry once it is released
+                if (attempt > 0 || holdExpiryService.releaseExpired(booking.getSalonId(),
+                        booking.getStartTime(), booking.getEndTime()) == 0) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Completes a status change made by a single findAndModify guarded on the
+     * statuses allowed to precede it, so concurrent updates cannot overwrite
+     * each other. The pre-image it was given supplies the previous status for
+     * the availability and report hooks.
+     */
+    private Booking applied(Booking booking, BookingStatus target, PaymentStatus paymentStatus) {
+        BookingStatus previousStatus = booking.getStatus();
+        if (paymentStatus != null) {
+            booking.setPaymentStatus(paymentStatus);
+        }
+        if (target != null) {
+            booking.setStatus(target);
+            onStatusChanged(booking, previousStatus);
+        }
+        return booking;
+    }
 
-        booking.setStatus(status);
-        return bookingRepository.save(booking);
+    private void onStatusChanged(Booking updated, BookingStatus previousStatus) {
+        availabilityEngine.onStatusChanged(updated, previousStatus);
+        salonReportRollupService.onStatusChanged(updated, previousStatus);
+        availabilityHeatmapService.onBookingChanged(updated);
     }
     public Boolean isTimeSlotAvailable(SalonDTO salonDTO,
                                        LocalDateTime bookingStartTime,
                                        LocalDateTime bookingEndTime) throws Exception {
-        List<Booking> existingBookings = getBookingBySalon(salonDTO.getId());
+        checkWorkingHours(salonDTO, bookingStartTime, bookingEndTime);
 
-        LocalTime salonOpenTimeOnly = salonDTO.getOpenTime();
-        LocalTime salonCloseTimeOnly = salonDTO.getCloseTime();
+        if (!availabilityEngine.isFree(salonDTO.getId(), bookingStartTime, bookingEndTime)
+                && (holdExpiryService.releaseExpired(salonDTO.getId(), bookingStartTime, bookingEndTime) == 0
+                || !availabilityEngine.isFree(salonDTO.getId(), bookingStartTime, bookingEndTime))) {
+            throw new Exception("Slot not available. Please choose a different time.");
+        }
 
-        LocalDateTime salonOpenTime = LocalDateTime.of(bookingStartTime.toLocalDate(), salonOpenTimeOnly);
-        LocalDateTime salonCloseTime = LocalDateTime.of(bookingStartTime.toLocalDate(), salonCloseTimeOnly);
+        return true;
+    }
 
-        if (salonCloseTimeOnly.isBefore(salonOpenTimeOnly)) {
-            salonCloseTime = salonCloseTime.plusDays(1);
-        }
+    private void checkWorkingHours(SalonDTO salonDTO,
+                                   LocalDateTime bookingStartTime,
+                                   LocalDateTime bookingEndTime) throws Exception {
+        LocalDateTime salonOpenTime = salonOpenTime(salonDTO, bookingStartTime.toLocalDate());
+        LocalDateTime salonCloseTime = salonCloseTime(salonDTO, bookingStartTime.toLocalDate());
 
         if (bookingStartTime.isBefore(salonOpenTime) || bookingEndTime.isAfter(salonCloseTime)) {
             throw new Exception("Booking time must be within salon's working hours: "
-                    + salonOpenTimeOnly + " - " + salonCloseTimeOnly);
+                    + salonDTO.getOpenTime() + " - " + salonDTO.getCloseTime());
         }
+    }
 
-        for (Booking existingBooking : existingBookings) {
-            if (existingBooking.getStatus() == BookingStatus.CANCELLED) {
-                continue;
-            }
+    private LocalDateTime salonOpenTime(SalonDTO salonDTO, LocalDate date) {
+        return LocalDateTime.of(date, salonDTO.getOpenTime());
+    }
 
-            LocalDateTime existingBookingStartTime = existingBooking.getStartTime();
-            LocalDateTime existingBookingEndTime = existingBooking.getEndTime();
+    private LocalDateTime salonCloseTime(SalonDTO salonDTO, LocalDate date) {
+        LocalDateTime closeTime = LocalDateTime.of(date, salonDTO.getCloseTime());
+        if (salonDTO.getCloseTime().isBefore(salonDTO.getOpenTime())) {
+            closeTime = closeTime.plusDays(1);
+        }
+        return closeTime;
+    }
 
-            if (bookingStartTime.isBefore(existingBookingEndTime) && bookingEndTime.isAfter(existingBookingStartTime)) {
-                throw new Exception("Slot not available. Please choose a different time.");
-            }
+    @Override
+    public List<LocalDateTime> getAvailableSlots(SalonDTO salonDTO, LocalDate date, int durationMinutes) {
+        LocalDateTime openTime = salonOpenTime(salonDTO, date);
+        LocalDateTime closeTime = salonCloseTime(salonDTO, date);
 
-            if (bookingStartTime.isEqual(existingBookingStartTime) || bookingEndTime.isEqual(existingBookingEndTime)) {
-                throw new Exception("Slot not available. Please choose a different time.");
-            }
-        }
+        holdExpiryService.releaseExpired(salonDTO.getId(), openTime, closeTime);
+        OccupancyBitmap occupancy = availabilityEngine.occupancy(salonDTO.getId(), openTime, closeTime);
+        return occupancy.freeStarts(durationMinutes, LocalDateTime.now());
+    }
 
-        return true;
+    @Override
+    public List<DayAvailabilityDTO> getMonthAvailability(SalonDTO salonDTO, YearMonth month) {
+        return availabilityHeatmapService.getMonth(salonDTO, month);
     }
 
     @Override
-    public List<Booking> getBookingsByCustomer(String customerId) {
-        return bookingRepository.findByCustomerId(customerId);
+    public List<Booking> getBookingsByCustomer(String customerId, boolean includeArchived) {
+        List<Booking> bookings = bookingRepository.findByCustomerId(customerId);
+        if (!includeArchived) {
+            return bookings;
+        }
+        List<Booking> all = new ArrayList<>(bookings);
+        all.addAll(bookingRepository.findArchivedByCustomerId(customerId));
+        return all;
     }
 
     @Override
@@ -135,9 +522,56 @@ public class BookingServiceImpl implements BookingService {
         return bookingRepository.findBySalonId(salonId);
     }
 
+    @Override
+    public List<BookingSummaryDTO> getBookingSummariesByCustomer(String customerId, boolean includeArchived) {
+        List<BookingSummaryDTO> bookings = bookingRepository.findSummariesByCustomerId(customerId);
+        if (!includeArchived) {
+            return bookings;
+        }
+        List<BookingSummaryDTO> all = new ArrayList<>(bookings);
+        all.addAll(bookingRepository.findArchivedSummariesByCustomerId(customerId));
+        return all;
+    }
+
+    @Override
+    public List<BookingSummaryDTO> getBookingSummariesBySalon(String salonId) {
+        return bookingRepository.findSummariesBySalonId(salonId);
+    }
+
+    @Override
+    public BookingPageDTO<?> getBookingPage(BookingPageRequest request) {
+        int limit = request.getLimit() != null
+                ? Math.max(1, Math.min(request.getLimit(), maxPageSize))
+                : defaultPageSize;
+        BookingCursor after = request.getCursor() != null ? BookingCursor.decode(request.getCursor()) : null;
+
+        if (request.getView() == BookingView.SUMMARY) {
+            return page(bookingRepository.findSummaryPage(request, after, limit + 1), limit,
+                    row -> new BookingCursor(row.getStartTime(), row.getId()));
+        }
+
+        BookingPageDTO<Booking> page = page(bookingRepository.findPage(request, after, limit + 1), limit,
+                row -> new BookingCursor(row.getStartTime(), row.getId()));
+        List<BookingDTO> items = page.getItems().stream()
+                .map(BookingMapper::toDTO)
+                .collect(Collectors.toList());
+        return new BookingPageDTO<>(items, page.getNextCursor());
+    }
+
+    // rows holds up to limit + 1 entries; the extra one only signals that another page exists
+    private static <T> BookingPageDTO<T> page(List<T> rows, int limit, Function<T, BookingCursor> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new BookingPageDTO<>(page, nextCursor);
+    }
+
     @Override
     public Booking getBookingById(String id) throws Exception {
-        Booking booking = bookingRepository.findById(id).orElse(null);
+        Booking booking = bookingRepository.findById(id)
+                .or(() -> bookingRepository.findArchivedById(id))
+                .orElse(null);
         if (booking == null) {
             throw new Exception("Booking not found");
         }
@@ -147,11 +581,7 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public BookingDTO updateBookingStatus(String bookingId, BookingStatus bookingStatus) {
         try {
-            Booking booking = bookingRepository.findById(String.valueOf(new ObjectId(bookingId)))
-                    .orElseThrow(() -> new RuntimeException("Booking not found"));
-
-            booking.setStatus(bookingStatus);
-            Booking updated = bookingRepository.save(booking);
+            Booking updated = updateBooking(bookingId, bookingStatus);
 
             // Create DTO manually here
             BookingDTO dto = new BookingDTO();
@@ -169,6 +599,8 @@ public class BookingServiceImpl implements BookingService {
             dto.setTotalPrice(updated.getTotalPrice());
 
             return dto;
+        } catch (BookingTransitionException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to update booking status: " + e.getMessage());
         }
@@ -176,48 +608,28 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<Booking> getBookingByDate(LocalDateTime date, String salonId) {
-        List<Booking> allBooking = getBookingBySalon(salonId);
-
         if (date == null) {
-            return allBooking;
+            return getBookingBySalon(salonId);
         }
 
-        return allBooking.stream()
-                .filter(booking -> isSameDate(booking.getStartTime(), date) ||
-                        isSameDate(booking.getEndTime(), date))
-                .collect(Collectors.toList());
-    }
-
-    private boolean isSameDate(LocalDateTime dateTime, LocalDateTime date) {
-        return dateTime.toLocalDate().isEqual(date.toLocalDate());
+        LocalDateTime dayStart = date.toLocalDate().atStartOfDay();
+        return bookingRepository.findActiveBySalonIdOverlapping(salonId, dayStart, dayStart.plusDays(1),
+                LocalDateTime.now());
     }
 
     @Override
-    public SalonReport getSalonReport(String salonId) {
-        List<Booking> bookings = getBookingBySalon(salonId);
-
-        int totalEarnings = bookings.stream()
-                .filter(booking -> booking.getStatus() == BookingStatus.CONFIRM)
-                .mapToInt(Booking::getTotalPrice)
-                .sum();
-
-        Integer totalBooking = bookings.size();
-
-        List<Booking> cancelledBookings = bookings.stream()
-                .filter(booking -> booking.getStatus() == BookingStatus.CANCELLED)
-                .collect(Collectors.toList());
-
-        int totalRefund = cancelledBookings.stream()
-                .mapToInt(Booking::getTotalPrice)
-                .sum();
+    public List<BookingSummaryDTO> getBookingSummariesByDate(LocalDateTime date, String salonId) {
+        if (date == null) {
+            return getBookingSummariesBySalon(salonId);
+        }
 
-        SalonReport report = new SalonReport();
-        report.setSalonId(salonId);
-        report.setCancelledBooking(cancelledBookings.size());
-        report.setTotalBooking(totalBooking);
-        report.setTotalEarnings(totalEarnings);
-        report.setTotalRefund(totalRefund);
+        LocalDateTime dayStart = date.toLocalDate().atStartOfDay();
+        return bookingRepository.findActiveSummariesBySalonIdOverlapping(salonId, dayStart, dayStart.plusDays(1),
+                LocalDateTime.now());
+    }
 
-        return report;
+    @Override
+    public SalonReport getSalonReport(String salonId, LocalDate from, LocalDate to) {
+        return salonReportRollupService.getReport(salonId, from, to);
     }
-}
\ No newline at end of file
+}
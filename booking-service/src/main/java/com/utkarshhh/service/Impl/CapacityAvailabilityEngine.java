@@ -0,0 +1,185 @@
+package com.utkarshhh.service.Impl;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.dto.StylistHoursDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.service.AvailabilityEngine;
+import com.utkarshhh.service.BookingIntervalIndex;
+import com.utkarshhh.service.SalonService;
+import com.utkarshhh.service.SeatClaimService;
+import com.utkarshhh.service.SlotClaimService;
+import com.utkarshhh.util.CapacitySweep;
+import com.utkarshhh.util.OccupancyBitmap;
+import com.utkarshhh.util.SlotGranules;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Availability for salons with several chairs and, optionally, stylist
+ * working hours. A window is free while one more booking keeps concurrent
+ * occupancy within capacity, checked with a {@link CapacitySweep} over the
+ * bookings held by {@link BookingIntervalIndex}; ownership across replicas
+ * goes through {@link SeatClaimService} for every salon, a single chair being
+ * one seat. Slot claims still held by bookings made under the index engine
+ * count as taken seats, so selecting this engine on a running system keeps
+ * those bookings guarded. A salon whose capacity cannot be loaded is not
+ * booked at all rather than guessed at.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "booking.availability.engine", havingValue = "capacity")
+public class CapacityAvailabilityEngine implements AvailabilityEngine {
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final SlotClaimService slotClaimService;
+    private final SeatClaimService seatClaimService;
+    private final SalonService salonService;
+
+    @Override
+    public boolean isFree(String salonId, LocalDateTime start, LocalDateTime end) {
+        SalonDTO salon = salon(salonId);
+        return sweep(salon, start, end).fits(toSeconds(start), endSeconds(start, end));
+    }
+
+    @Override
+    public OccupancyBitmap occupancy(String salonId, LocalDateTime from, LocalDateTime to) {
+        SalonDTO salon = salon(salonId);
+        OccupancyBitmap bitmap = new OccupancyBitmap(from, to);
+        sweep(salon, from, to).forEachFull(toSeconds(from), endSeconds(from, to), bitmap::occupy);
+        return bitmap;
+    }
+
+    @Override
+    public void reserve(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) throws Exception {
+        SalonDTO salon = salon(salonId);
+        if (!bookingIntervalIndex.reserve(salonId, bookingId, start, end,
+                () -> sweep(salon, start, end).fits(toSeconds(start), endSeconds(start, end)))) {
+            throw new Exception("Slot not available. Please choose a different time.");
+        }
+
+        try {
+            Set<LocalDateTime> slotClaimed = slotClaimService.claimedGranules(salonId, bookingId, start, end);
+            seatClaimService.claim(salonId, bookingId, start, end,
+                    granule -> seatsAt(salon, granule) - (slotClaimed.contains(granule) ? 1 : 0));
+        } catch (Exception e) {
+            bookingIntervalIndex.release(salonId, bookingId, start, end);
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        slotClaimService.release(bookingId);
+        seatClaimService.release(bookingId);
+        bookingIntervalIndex.release(salonId, bookingId, start, end);
+    }
+
+    @Override
+    public void onStatusChanged(Booking booking, BookingStatus previousStatus) {
+        bookingIntervalIndex.onBookingChanged(booking);
+        slotClaimService.onStatusChanged(booking, previousStatus);
+        if (booking.getStatus() == BookingStatus.CANCELLED || booking.getStatus() == BookingStatus.COMPLETED) {
+            seatClaimService.release(booking.getId());
+        }
+    }
+
+    /**
+     * Whether the salon serves more than one booking at a time or limits
+     * capacity by stylist hours, rather than being a plain single chair.
+     */
+    public static boolean hasCapacity(SalonDTO salon) {
+        boolean multiChair = salon.getChairCount() != null && salon.getChairCount() > 1;
+        return multiChair || staffed(salon);
+    }
+
+    /**
+     * A sweep holding the salon's chairs and the stylist shifts overlapping
+     * [from, to), ready for the bookings of that window to be added.
+     */
+    public static CapacitySweep emptySweep(SalonDTO salon, LocalDateTime from, LocalDateTime to) {
+        CapacitySweep sweep = new CapacitySweep(chairs(salon), staffed(salon));
+        forEachShift(salon, from, to, (start, end) -> sweep.addShift(toSeconds(start), toSeconds(end)));
+        return sweep;
+    }
+
+    // without the salon its capacity is unknown, and assuming one chair could hand out seats already taken
+    private SalonDTO salon(String salonId) {
+        SalonDTO salon;
+        try {
+            salon = salonService.getSalonById(salonId);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not load capacity of salon " + salonId, e);
+        }
+        if (salon == null) {
+            throw new IllegalStateException("Could not load capacity of salon " + salonId);
+        }
+        return salon;
+    }
+
+    private CapacitySweep sweep(SalonDTO salon, LocalDateTime from, LocalDateTime to) {
+        CapacitySweep sweep = emptySweep(salon, from, to);
+        bookingIntervalIndex.forEachOverlapping(salon.getId(), from, to,
+                (id, start, end) -> sweep.addBooking(start, end));
+        return sweep;
+    }
+
+    private int seatsAt(SalonDTO salon, LocalDateTime granule) {
+        if (!staffed(salon)) {
+            return chairs(salon);
+        }
+        int[] onShift = {0};
+        forEachShift(salon, granule, granule.plusMinutes(SlotGranules.GRANULE_MINUTES),
+                (start, end) -> onShift[0]++);
+        return Math.min(chairs(salon), onShift[0]);
+    }
+
+    // shifts overlapping [from, to), starting the day before in case one runs past midnight
+    private static void forEachShift(SalonDTO salon, LocalDateTime from, LocalDateTime to,
+                                     BiConsumer<LocalDateTime, LocalDateTime> consumer) {
+        if (salon.getStylists() == null) {
+            return;
+        }
+        for (LocalDate day = from.toLocalDate().minusDays(1); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+            for (StylistHoursDTO stylist : salon.getStylists()) {
+                if (stylist.getStartTime() == null || stylist.getEndTime() == null) {
+                    continue;
+                }
+                LocalDateTime start = day.atTime(stylist.getStartTime());
+                LocalDateTime end = day.atTime(stylist.getEndTime());
+                if (!end.isAfter(start)) {
+                    end = end.plusDays(1);
+                }
+                if (start.isBefore(to) && end.isAfter(from)) {
+                    consumer.accept(start, end);
+                }
+            }
+        }
+    }
+
+    private static boolean staffed(SalonDTO salon) {
+        return salon.getStylists() != null && !salon.getStylists().isEmpty();
+    }
+
+    private static int chairs(SalonDTO salon) {
+        return salon.getChairCount() != null ? Math.max(1, salon.getChairCount()) : 1;
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // zero-length windows still collide with a booking starting at the same instant
+    private static long endSeconds(LocalDateTime start, LocalDateTime end) {
+        return Math.max(toSeconds(end), toSeconds(start) + 1);
+    }
+}
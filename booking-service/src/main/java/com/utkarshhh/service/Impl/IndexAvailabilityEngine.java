@@ -0,0 +1,58 @@
+package com.utkarshhh.service.Impl;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.service.AvailabilityEngine;
+import com.utkarshhh.service.BookingIntervalIndex;
+import com.utkarshhh.service.SlotClaimService;
+import com.utkarshhh.util.OccupancyBitmap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "booking.availability.engine", havingValue = "index", matchIfMissing = true)
+public class IndexAvailabilityEngine implements AvailabilityEngine {
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final SlotClaimService slotClaimService;
+
+    @Override
+    public boolean isFree(String salonId, LocalDateTime start, LocalDateTime end) {
+        return !bookingIntervalIndex.overlaps(salonId, start, end);
+    }
+
+    @Override
+    public OccupancyBitmap occupancy(String salonId, LocalDateTime from, LocalDateTime to) {
+        return bookingIntervalIndex.occupancy(salonId, from, to);
+    }
+
+    @Override
+    public void reserve(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) throws Exception {
+        if (!bookingIntervalIndex.reserve(salonId, bookingId, start, end)) {
+            throw new Exception("Slot not available. Please choose a different time.");
+        }
+
+        try {
+            slotClaimService.claim(salonId, bookingId, start, end);
+        } catch (Exception e) {
+            bookingIntervalIndex.release(salonId, bookingId, start, end);
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        slotClaimService.release(bookingId);
+        bookingIntervalIndex.release(salonId, bookingId, start, end);
+    }
+
+    @Override
+    public void onStatusChanged(Booking booking, BookingStatus previousStatus) {
+        bookingIntervalIndex.onBookingChanged(booking);
+        slotClaimService.onStatusChanged(booking, previousStatus);
+    }
+}
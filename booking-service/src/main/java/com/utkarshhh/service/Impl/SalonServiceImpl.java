@@ -4,6 +4,7 @@ import com.utkarshhh.dto.SalonDTO;
 import com.utkarshhh.mapper.SalonMapper;
 import com.utkarshhh.model.Salon;
 import com.utkarshhh.repository.SalonRepository;
+import com.utkarshhh.service.MetadataCache;
 import com.utkarshhh.service.SalonService;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
@@ -14,11 +15,20 @@ import org.springframework.stereotype.Service;
 public class SalonServiceImpl implements SalonService {
 
     private final SalonRepository salonRepository;
+    private final MetadataCache metadataCache;
 
     @Override
     public SalonDTO getSalonById(String salonId) throws Exception {
+        SalonDTO cached = metadataCache.getSalon(salonId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = metadataCache.salonGeneration();
         Salon salon = salonRepository.findById(salonId)
                 .orElseThrow(() -> new Exception("Salon not found with id: " + salonId));
-        return SalonMapper.toDTO(salon);
+        SalonDTO salonDTO = SalonMapper.toDTO(salon);
+        metadataCache.putSalon(salonDTO, generation);
+        return salonDTO;
     }
 }
\ No newline at end of file
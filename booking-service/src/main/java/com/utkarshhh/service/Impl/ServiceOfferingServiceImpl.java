@@ -4,21 +4,76 @@ import com.utkarshhh.dto.ServiceDTO;
 import com.utkarshhh.mapper.ServiceMapper;
 import com.utkarshhh.model.ServiceOffering;
 import com.utkarshhh.repository.ServiceOfferingRepository;
+import com.utkarshhh.service.MetadataCache;
 import com.utkarshhh.service.ServiceOfferingService;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 public class ServiceOfferingServiceImpl implements ServiceOfferingService {
 
     private final ServiceOfferingRepository serviceOfferingRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MetadataCache metadataCache;
 
     @Override
     public ServiceDTO getServiceById(String serviceId) throws Exception {
+        ServiceDTO cached = metadataCache.getService(serviceId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = metadataCache.serviceGeneration();
         ServiceOffering serviceOffering = serviceOfferingRepository.findById(serviceId)
                 .orElseThrow(() -> new Exception("Service not found with id: " + serviceId));
-        return ServiceMapper.toDTO(serviceOffering);
+        ServiceDTO serviceDTO = ServiceMapper.toDTO(serviceOffering);
+        metadataCache.putService(serviceDTO, generation);
+        return serviceDTO;
+    }
+
+    @Override
+    public Set<ServiceDTO> getServicesByIds(Set<String> serviceIds) throws Exception {
+        if (serviceIds == null || serviceIds.isEmpty()) {
+            throw new Exception("At least one service is required");
+        }
+
+        Map<String, ServiceDTO> found = findServicesByIds(serviceIds);
+        Set<String> missing = new LinkedHashSet<>(serviceIds);
+        missing.removeAll(found.keySet());
+        if (!missing.isEmpty()) {
+            throw new Exception("Service not found with ids: " + String.join(", ", missing));
+        }
+
+        return new HashSet<>(found.values());
+    }
+
+    @Override
+    public Map<String, ServiceDTO> findServicesByIds(Set<String> serviceIds) {
+        Map<String, ServiceDTO> found = new HashMap<>(metadataCache.getServices(serviceIds));
+        Set<String> missing = new HashSet<>(serviceIds);
+        missing.removeAll(found.keySet());
+
+        if (!missing.isEmpty()) {
+            long generation = metadataCache.serviceGeneration();
+            // full documents rather than a projection, so what is loaded can be cached
+            for (ServiceOffering offering : mongoTemplate.find(
+                    Query.query(Criteria.where("_id").in(missing)), ServiceOffering.class)) {
+                ServiceDTO serviceDTO = ServiceMapper.toDTO(offering);
+                metadataCache.putService(serviceDTO, generation);
+                found.put(serviceDTO.getId(), serviceDTO);
+            }
+        }
+        return found;
     }
-}
\ No newline at end of file
+}
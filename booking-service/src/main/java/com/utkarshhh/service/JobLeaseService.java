@@ -0,0 +1,74 @@
+package com.utkarshhh.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.utkarshhh.model.JobLease;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Keeps singleton background jobs to one instance through {@link JobLease}
+ * documents. A job acquires its lease before a pass and renews it before
+ * every further batch, stopping as soon as a renewal fails; a batch must
+ * therefore finish well inside the lease duration, while a whole pass may
+ * take as long as it needs.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobLeaseService {
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    /**
+     * Takes the lease if it is free or lapsed, or extends it if this
+     * instance already holds it.
+     */
+    public boolean acquire(String jobId, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(jobId)
+                .orOperator(Criteria.where("leaseUntil").lt(now), Criteria.where("owner").is(owner)));
+        try {
+            mongoTemplate.upsert(query, new Update()
+                    .set("owner", owner)
+                    .set("leaseUntil", now.plus(duration)), JobLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Extends a lease this instance holds. Returns false once another
+     * instance has taken it over, and the caller must stop.
+     */
+    public boolean renew(String jobId, Duration duration) {
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(jobId).and("owner").is(owner)),
+                new Update().set("leaseUntil", LocalDateTime.now().plus(duration)),
+                JobLease.class);
+        if (result.getMatchedCount() == 0) {
+            log.warn("Lost the {} lease to another instance", jobId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Lets another instance take the lease straight away.
+     */
+    public void release(String jobId) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(jobId).and("owner").is(owner)),
+                new Update().set("leaseUntil", LocalDateTime.now()), JobLease.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.utkarshhh.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.dto.ServiceDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process copies of salon and service-offering documents, which
+ * are read on every booking create but rarely edited. Entries are dropped by
+ * {@link MetadataChangeWatcher} as soon as the source document changes; the
+ * TTL only bounds staleness while the change stream is unavailable.
+ *
+ * <p>Every invalidation bumps a generation counter. A loader reads the
+ * generation before going to the database and passes it to the put, which
+ * is dropped if an invalidation happened in between, so a lookup that raced
+ * an edit cannot cache the value the edit replaced.
+ */
+@Service
+public class MetadataCache {
+
+    private final Cache<String, SalonDTO> salons;
+    private final Cache<String, ServiceDTO> services;
+    private final AtomicLong salonGeneration = new AtomicLong();
+    private final AtomicLong serviceGeneration = new AtomicLong();
+
+    public MetadataCache(@Value("${booking.cache.metadata.max-size:10000}") long maxSize,
+                         @Value("${booking.cache.metadata.ttl:10m}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.salons = build(maxSize, ttl);
+        this.services = build(maxSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, salons, "booking.metadata.salon");
+        CaffeineCacheMetrics.monitor(meterRegistry, services, "booking.metadata.service");
+    }
+
+    public SalonDTO getSalon(String salonId) {
+        return salons.getIfPresent(salonId);
+    }
+
+    public long salonGeneration() {
+        return salonGeneration.get();
+    }
+
+    public void putSalon(SalonDTO salon, long generation) {
+        put(salons, salonGeneration, salon.getId(), salon, generation);
+    }
+
+    public void invalidateSalon(String salonId) {
+        salonGeneration.incrementAndGet();
+        salons.invalidate(salonId);
+    }
+
+    public ServiceDTO getService(String serviceId) {
+        return services.getIfPresent(serviceId);
+    }
+
+    public Map<String, ServiceDTO> getServices(Set<String> serviceIds) {
+        return services.getAllPresent(serviceIds);
+    }
+
+    public long serviceGeneration() {
+        return serviceGeneration.get();
+    }
+
+    public void putService(ServiceDTO service, long generation) {
+        put(services, serviceGeneration, service.getId(), service, generation);
+    }
+
+    public void invalidateService(String serviceId) {
+        serviceGeneration.incrementAndGet();
+        services.invalidate(serviceId);
+    }
+
+    public void invalidateAllSalons() {
+        salonGeneration.incrementAndGet();
+        salons.invalidateAll();
+    }
+
+    public void invalidateAllServices() {
+        serviceGeneration.incrementAndGet();
+        services.invalidateAll();
+    }
+
+    private static <V> void put(Cache<String, V> cache, AtomicLong current, String key, V value, long generation) {
+        cache.asMap().compute(key, (k, cached) -> current.get() == generation ? value : cached);
+        // an invalidateAll running alongside the compute may have missed the new entry
+        if (current.get() != generation) {
+            cache.asMap().remove(key, value);
+        }
+    }
+
+    private static <V> Cache<String, V> build(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
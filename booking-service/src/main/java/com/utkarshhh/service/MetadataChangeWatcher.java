@@ -0,0 +1,129 @@
+package com.utkarshhh.service;
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.utkarshhh.model.Salon;
+import com.utkarshhh.model.ServiceOffering;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+
+/**
+ * Tails a change stream on the salon and offering collections and evicts the
+ * matching {@link MetadataCache} entry for every change, so edits made by
+ * salon-service or service-offering are visible here almost immediately.
+ * Whenever the stream is (re)opened both caches are cleared, since changes
+ * made while it was down were not observed. Change streams need a replica
+ * set; without one the watcher keeps retrying with backoff and the cache TTL
+ * is the only bound on staleness.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "booking.cache.change-stream.enabled", havingValue = "true", matchIfMissing = true)
+public class MetadataChangeWatcher {
+
+    private static final long MIN_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MetadataCache metadataCache;
+    private final String salonCollection;
+    private final String offeringCollection;
+
+    private volatile boolean running = true;
+
+    public MetadataChangeWatcher(MongoTemplate mongoTemplate, MetadataCache metadataCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.metadataCache = metadataCache;
+        this.salonCollection = mongoTemplate.getCollectionName(Salon.class);
+        this.offeringCollection = mongoTemplate.getCollectionName(ServiceOffering.class);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(this::watch, "metadata-change-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    private void watch() {
+        long backoff = MIN_BACKOFF_MILLIS;
+
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = mongoTemplate.getDb()
+                    .watch(List.of(Aggregates.match(Filters.in("ns.coll", salonCollection, offeringCollection))))
+                    .cursor()) {
+                metadataCache.invalidateAllSalons();
+                metadataCache.invalidateAllServices();
+                backoff = MIN_BACKOFF_MILLIS;
+                log.info("Watching {} and {} for metadata changes", salonCollection, offeringCollection);
+
+                while (running) {
+                    apply(cursor.next());
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Metadata change stream unavailable, retrying in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        boolean salon = change.getNamespace() == null
+                || salonCollection.equals(change.getNamespace().getCollectionName());
+        boolean offering = change.getNamespace() == null
+                || offeringCollection.equals(change.getNamespace().getCollectionName());
+        String id = change.getDocumentKey() == null ? null : idOf(change.getDocumentKey().get("_id"));
+
+        if (id == null) {
+            // drop, rename or invalidate: nothing to key on, so start over
+            if (salon) {
+                metadataCache.invalidateAllSalons();
+            }
+            if (offering) {
+                metadataCache.invalidateAllServices();
+            }
+            return;
+        }
+        if (salon) {
+            metadataCache.invalidateSalon(id);
+        }
+        if (offering) {
+            metadataCache.invalidateService(id);
+        }
+    }
+
+    private static String idOf(BsonValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.isObjectId()) {
+            return value.asObjectId().getValue().toHexString();
+        }
+        return value.isString() ? value.asString().getValue() : value.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.domain.OutboxState;
+import com.utkarshhh.messaging.ConfirmedPublisher;
+import com.utkarshhh.model.Booking;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the notifications held in booking outboxes. One instance at a
+ * time holds the relay lease; it reads pending entries through the partial
+ * outbox index in batches, hands each batch to {@link ConfirmedPublisher}
+ * and then waits for the broker's confirms. Confirmed entries are marked SENT, the rest are
+ * retried with backoff. A crash between publish and mark resends the
+ * batch, so delivery is at-least-once and consumers should key on
+ * bookingId.
+ */
+@Slf4j
+@Service
+public class OutboxRelay {
+
+    private static final String LEASE_ID = "outbox-relay";
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private final MongoTemplate mongoTemplate;
+    private final ConfirmedPublisher confirmedPublisher;
+    private final JobLeaseService jobLeaseService;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final Duration leaseDuration;
+
+    public OutboxRelay(MongoTemplate mongoTemplate,
+                       ConfirmedPublisher confirmedPublisher,
+                       JobLeaseService jobLeaseService,
+                       @Value("${booking.outbox.batch-size:100}") int batchSize,
+                       @Value("${booking.outbox.confirm-timeout:10s}") Duration confirmTimeout,
+                       @Value("${booking.outbox.lease:30s}") Duration leaseDuration) {
+        this.mongoTemplate = mongoTemplate;
+        this.confirmedPublisher = confirmedPublisher;
+        this.jobLeaseService = jobLeaseService;
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Scheduled(initialDelayString = "${booking.outbox.initial-delay:PT30S}",
+            fixedDelayString = "${booking.outbox.flush-interval:PT1S}")
+    public void flush() {
+        try {
+            if (!jobLeaseService.acquire(LEASE_ID, leaseDuration)) {
+                return;
+            }
+            int drained;
+            do {
+                drained = drainBatch();
+            } while (drained == batchSize && jobLeaseService.renew(LEASE_ID, leaseDuration));
+        } catch (Exception e) {
+            log.warn("Outbox relay pass failed: {}", e.getMessage());
+        }
+    }
+
+    private int drainBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("outbox.state").is(OutboxState.PENDING)
+                        .and("outbox.nextAttemptAt").lte(now))
+                .with(Sort.by("outbox.nextAttemptAt"))
+                .limit(batchSize);
+        query.fields().include("outbox");
+        List<Booking> pending = mongoTemplate.find(query, Booking.class);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Boolean>> confirms = new ArrayList<>(pending.size());
+        for (Booking booking : pending) {
+            confirms.add(confirmedPublisher.publish(booking.getOutbox().getExchange(),
+                    booking.getOutbox().getRoutingKey(), booking.getOutbox().getPayload()));
+        }
+
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Booking.class);
+        int sent = 0;
+        for (int i = 0; i < pending.size(); i++) {
+            Booking booking = pending.get(i);
+            Query byId = Query.query(Criteria.where("_id").is(booking.getId()));
+            if (isAcked(confirms.get(i), deadline)) {
+                bulk.updateOne(byId, new Update()
+                        .set("outbox.state", OutboxState.SENT)
+                        .set("outbox.sentAt", LocalDateTime.now()));
+                sent++;
+            } else {
+                int attempts = booking.getOutbox().getAttempts() + 1;
+                bulk.updateOne(byId, new Update()
+                        .set("outbox.attempts", attempts)
+                        .set("outbox.nextAttemptAt", LocalDateTime.now().plusSeconds(backoffSeconds(attempts))));
+            }
+        }
+        bulk.execute();
+
+        if (sent < pending.size()) {
+            log.warn("Outbox relay: {} of {} notifications not confirmed, will retry", pending.size() - sent, pending.size());
+        }
+        return pending.size();
+    }
+
+    private static boolean isAcked(CompletableFuture<Boolean> confirm, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return confirm.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static long backoffSeconds(int attempts) {
+        return Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 16));
+    }
+}
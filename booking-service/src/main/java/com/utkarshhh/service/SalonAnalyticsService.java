@@ -0,0 +1,121 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.dto.HourlyBookingsDTO;
+import com.utkarshhh.dto.SalonAnalyticsDTO;
+import com.utkarshhh.dto.ServiceRevenueDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.repository.BookingRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Owner dashboard breakdowns computed in a single aggregation over the
+ * salon's bookings in a date range; only the aggregated rows leave the
+ * database. Revenue follows the report rule (CONFIRM bookings) and comes
+ * from the price stored on each booking, split evenly across its services,
+ * so later price changes do not rewrite past revenue.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalonAnalyticsService {
+
+    private final MongoTemplate mongoTemplate;
+
+    public SalonAnalyticsDTO getAnalytics(String salonId, LocalDate from, LocalDate to) {
+        ZoneId zone = ZoneId.systemDefault();
+        Date rangeStart = Date.from(from.atStartOfDay(zone).toInstant());
+        Date rangeEnd = Date.from(to.plusDays(1).atStartOfDay(zone).toInstant());
+
+        Document match = new Document("$match", new Document("salonId", salonId)
+                .append("startTime", new Document("$gte", rangeStart).append("$lt", rangeEnd)));
+        List<Document> pipeline = List.of(
+                match,
+                new Document("$unionWith", new Document("coll", BookingRepositoryCustom.ARCHIVE_COLLECTION)
+                        .append("pipeline", List.of(match))),
+                new Document("$facet", new Document()
+                        .append("summary", List.of(
+                                new Document("$group", new Document("_id", null)
+                                        .append("total", new Document("$sum", 1))
+                                        .append("cancelled", new Document("$sum", statusCount(BookingStatus.CANCELLED))))))
+                        .append("byHour", List.of(
+                                new Document("$match", new Document("status",
+                                        new Document("$ne", BookingStatus.CANCELLED.name()))),
+                                new Document("$group", new Document("_id",
+                                        new Document("$hour", new Document("date", "$startTime")
+                                                .append("timezone", zone.getId())))
+                                        .append("bookings", new Document("$sum", 1))),
+                                new Document("$sort", new Document("_id", 1))))
+                        .append("byService", List.of(
+                                new Document("$match", new Document("status", BookingStatus.CONFIRM.name())),
+                                new Document("$project", new Document("serviceIds", 1)
+                                        .append("share", new Document("$divide", List.of("$totalPrice",
+                                                new Document("$max", List.of(1, new Document("$size",
+                                                        new Document("$ifNull", List.of("$serviceIds", List.of()))))))))),
+                                new Document("$unwind", "$serviceIds"),
+                                new Document("$group", new Document("_id", "$serviceIds")
+                                        .append("bookings", new Document("$sum", 1))
+                                        .append("revenue", new Document("$sum", "$share"))),
+                                new Document("$lookup", new Document("from", "offering")
+                                        .append("let", new Document("sid", new Document("$convert",
+                                                new Document("input", "$_id").append("to", "objectId")
+                                                        .append("onError", null).append("onNull", null))))
+                                        .append("pipeline", List.of(
+                                                new Document("$match", new Document("$expr",
+                                                        new Document("$eq", List.of("$_id", "$$sid")))),
+                                                new Document("$project", new Document("name", 1))))
+                                        .append("as", "service")),
+                                new Document("$project", new Document("bookings", 1)
+                                        .append("revenue", 1)
+                                        .append("serviceName", new Document("$arrayElemAt", List.of("$service.name", 0)))),
+                                new Document("$sort", new Document("revenue", -1)))))
+        );
+
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Booking.class))
+                .aggregate(pipeline)
+                .first();
+
+        SalonAnalyticsDTO analytics = new SalonAnalyticsDTO();
+        analytics.setSalonId(salonId);
+        analytics.setFrom(from);
+        analytics.setTo(to);
+
+        List<Document> summary = result != null ? result.getList("summary", Document.class) : List.of();
+        if (!summary.isEmpty()) {
+            int total = summary.get(0).getInteger("total", 0);
+            int cancelled = summary.get(0).getInteger("cancelled", 0);
+            analytics.setTotalBookings(total);
+            analytics.setCancelledBookings(cancelled);
+            analytics.setCancellationRate(total > 0 ? (double) cancelled / total : 0);
+        }
+
+        analytics.setBookingsByHour(result == null ? List.of() : result.getList("byHour", Document.class)
+                .stream()
+                .map(row -> new HourlyBookingsDTO(row.getInteger("_id"), row.getInteger("bookings")))
+                .collect(Collectors.toList()));
+
+        analytics.setRevenueByService(result == null ? List.of() : result.getList("byService", Document.class)
+                .stream()
+                .map(row -> new ServiceRevenueDTO(
+                        row.getString("_id"),
+                        row.getString("serviceName"),
+                        row.getInteger("bookings"),
+                        Math.round(((Number) row.get("revenue")).doubleValue())))
+                .collect(Collectors.toList()));
+
+        return analytics;
+    }
+
+    private static Document statusCount(BookingStatus status) {
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of("$status", status.name())), 1, 0));
+    }
+}
@@ -0,0 +1,336 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.JobStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.MigrationCheckpoint;
+import com.utkarshhh.model.SalonReport;
+import com.utkarshhh.model.SalonReportDaily;
+import com.utkarshhh.repository.BookingRepositoryCustom;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link SalonReportDaily} rollups in step with the booking collection
+ * so reports sum a handful of small documents instead of scanning every
+ * booking a salon ever had. Earnings count CONFIRM bookings and refunds count
+ * CANCELLED ones, matching the original report. Salons that
+ * {@link SalonReportSeedJob} has not reached yet are reported straight from
+ * their bookings.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalonReportRollupService {
+
+    // a day that keeps changing under a rebuild is left to its increments after this many tries
+    private static final int MAX_REBUILD_ROUNDS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean seeded;
+
+    public void onBookingCreated(Booking booking) {
+        Update update = new Update().inc("totalBooking", 1);
+        applyStatus(update, booking.getStatus(), booking.getTotalPrice(), 1);
+        increment(booking, update);
+    }
+
+    public void onStatusChanged(Booking booking, BookingStatus previousStatus) {
+        if (previousStatus == booking.getStatus()) {
+            return;
+        }
+        Update update = new Update();
+        applyStatus(update, previousStatus, booking.getTotalPrice(), -1);
+        applyStatus(update, booking.getStatus(), booking.getTotalPrice(), 1);
+        if (!update.getUpdateObject().isEmpty()) {
+            increment(booking, update);
+        }
+    }
+
+    public SalonReport getReport(String salonId, LocalDate from, LocalDate to) {
+        if (!isSeeded(salonId)) {
+            return toReport(salonId, aggregateDays(salonId, startTimeBetween(from, to)));
+        }
+
+        Criteria criteria = Criteria.where("salonId").is(salonId);
+        if (from != null || to != null) {
+            criteria = criteria.and("date");
+            if (from != null) {
+                criteria = criteria.gte(from);
+            }
+            if (to != null) {
+                criteria = criteria.lte(to);
+            }
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group("salonId")
+                        .sum("totalEarnings").as("totalEarnings")
+                        .sum("totalBooking").as("totalBooking")
+                        .sum("cancelledBooking").as("cancelledBooking")
+                        .sum("totalRefund").as("totalRefund")
+        );
+        RollupTotals totals = mongoTemplate.aggregate(aggregation, SalonReportDaily.class, RollupTotals.class)
+                .getUniqueMappedResult();
+        return toReport(salonId, totals);
+    }
+
+    /**
+     * Every salon with bookings in the hot collection or the archive, in id
+     * order.
+     */
+    public Set<String> salonIds() {
+        Set<String> salonIds = new TreeSet<>(
+                mongoTemplate.findDistinct(new Query(), "salonId", Booking.class, String.class));
+        salonIds.addAll(mongoTemplate.findDistinct(new Query(), "salonId",
+                BookingRepositoryCustom.ARCHIVE_COLLECTION, Booking.class, String.class));
+        return salonIds;
+    }
+
+    /**
+     * Regenerates the rollups of one salon, or of every salon when
+     * {@code salonId} is null, from the raw booking collection and its
+     * archive. Increments keep landing while it runs: each day is written
+     * only if its version is still the one read before the recount, and the
+     * days that moved are recounted, so no increment is overwritten.
+     */
+    public int rebuild(String salonId) {
+        if (salonId == null) {
+            return salonIds().stream()
+                    .mapToInt(this::rebuild)
+                    .sum();
+        }
+
+        int rebuilt = -1;
+        Set<LocalDate> days = null;
+        for (int round = 1; ; round++) {
+            Criteria scope = Criteria.where("salonId").is(salonId);
+            if (days != null) {
+                scope = scope.and("date").in(days);
+            }
+            Map<String, SalonReportDaily> current = mongoTemplate.find(new Query(scope), SalonReportDaily.class)
+                    .stream()
+                    .collect(Collectors.toMap(SalonReportDaily::getId, Function.identity()));
+            List<SalonReportDaily> rollups = aggregateDays(salonId,
+                    days != null ? startTimeOn(days) : Criteria.where("startTime").ne(null));
+            if (rebuilt < 0) {
+                rebuilt = rollups.size();
+            }
+
+            Set<LocalDate> moved = new TreeSet<>();
+            for (SalonReportDaily rollup : rollups) {
+                SalonReportDaily seen = current.remove(rollup.getId());
+                if (!(seen == null ? insert(rollup) : replace(rollup, seen.getVersion()))) {
+                    moved.add(rollup.getDate());
+                }
+            }
+            for (SalonReportDaily stale : current.values()) {
+                if (mongoTemplate.remove(versioned(stale.getId(), stale.getVersion()), SalonReportDaily.class)
+                        .getDeletedCount() == 0) {
+                    moved.add(stale.getDate());
+                }
+            }
+
+            if (moved.isEmpty()) {
+                break;
+            }
+            if (round == MAX_REBUILD_ROUNDS) {
+                log.warn("Report rollups of salon {} kept changing on {}; left to their increments", salonId, moved);
+                break;
+            }
+            days = moved;
+        }
+
+        log.info("Rebuilt {} report rollups for salon {}", rebuilt, salonId);
+        return rebuilt;
+    }
+
+    private static SalonReport toReport(String salonId, List<SalonReportDaily> days) {
+        RollupTotals totals = new RollupTotals();
+        for (SalonReportDaily day : days) {
+            totals.setTotalEarnings(totals.getTotalEarnings() + day.getTotalEarnings());
+            totals.setTotalBooking(totals.getTotalBooking() + day.getTotalBooking());
+            totals.setCancelledBooking(totals.getCancelledBooking() + day.getCancelledBooking());
+            totals.setTotalRefund(totals.getTotalRefund() + day.getTotalRefund());
+        }
+        return toReport(salonId, totals);
+    }
+
+    private static SalonReport toReport(String salonId, RollupTotals totals) {
+        SalonReport report = new SalonReport();
+        report.setSalonId(salonId);
+        report.setTotalEarnings(totals != null ? totals.getTotalEarnings() : 0);
+        report.setTotalBooking(totals != null ? (int) totals.getTotalBooking() : 0);
+        report.setCancelledBooking(totals != null ? (int) totals.getCancelledBooking() : 0);
+        report.setTotalRefund(totals != null ? totals.getTotalRefund() : 0);
+        return report;
+    }
+
+    private boolean isSeeded(String salonId) {
+        if (seeded) {
+            return true;
+        }
+        MigrationCheckpoint checkpoint = mongoTemplate.findById(SalonReportSeedJob.JOB_ID, MigrationCheckpoint.class);
+        if (checkpoint != null && checkpoint.getStatus() == JobStatus.COMPLETED) {
+            seeded = true;
+            return true;
+        }
+        return checkpoint != null && checkpoint.getLastSalonId() != null
+                && salonId.compareTo(checkpoint.getLastSalonId()) <= 0;
+    }
+
+    // the hot collection and the archive are counted separately and their days added up
+    private List<SalonReportDaily> aggregateDays(String salonId, Criteria startTime) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(new Criteria().andOperator(Criteria.where("salonId").is(salonId), startTime)),
+                Aggregation.project("status", "totalPrice")
+                        .and(DateOperators.DateToString.dateOf("startTime")
+                                .toString("%Y-%m-%d")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId())))
+                        .as("day"),
+                Aggregation.group("day")
+                        .count().as("totalBooking")
+                        .sum(statusAmount(BookingStatus.CONFIRM, "$totalPrice")).as("totalEarnings")
+                        .sum(statusAmount(BookingStatus.CANCELLED, 1)).as("cancelledBooking")
+                        .sum(statusAmount(BookingStatus.CANCELLED, "$totalPrice")).as("totalRefund")
+        ).withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        Map<String, SalonReportDaily> days = new TreeMap<>();
+        for (String collection : List.of(mongoTemplate.getCollectionName(Booking.class),
+                BookingRepositoryCustom.ARCHIVE_COLLECTION)) {
+            for (Document row : mongoTemplate.aggregate(aggregation, collection, Document.class)) {
+                days.merge(row.getString("_id"), toRollup(salonId, row), SalonReportRollupService::add);
+            }
+        }
+        return new ArrayList<>(days.values());
+    }
+
+    private static Criteria startTimeBetween(LocalDate from, LocalDate to) {
+        Criteria criteria = Criteria.where("startTime");
+        if (from == null && to == null) {
+            return criteria.ne(null);
+        }
+        if (from != null) {
+            criteria = criteria.gte(from.atStartOfDay());
+        }
+        if (to != null) {
+            criteria = criteria.lt(to.plusDays(1).atStartOfDay());
+        }
+        return criteria;
+    }
+
+    private static Criteria startTimeOn(Set<LocalDate> days) {
+        return new Criteria().orOperator(days.stream()
+                .map(day -> startTimeBetween(day, day))
+                .collect(Collectors.toList()));
+    }
+
+    private boolean insert(SalonReportDaily rollup) {
+        try {
+            mongoTemplate.insert(rollup);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean replace(SalonReportDaily rollup, long seenVersion) {
+        Update update = new Update()
+                .set("totalEarnings", rollup.getTotalEarnings())
+                .set("totalBooking", rollup.getTotalBooking())
+                .set("cancelledBooking", rollup.getCancelledBooking())
+                .set("totalRefund", rollup.getTotalRefund())
+                .inc("version", 1);
+        return mongoTemplate.updateFirst(versioned(rollup.getId(), seenVersion), update, SalonReportDaily.class)
+                .getMatchedCount() > 0;
+    }
+
+    // rollups written before versions existed have none, which reads as version 0
+    private static Query versioned(String id, long version) {
+        return Query.query(Criteria.where("_id").is(id)
+                .and("version").in(version == 0 ? Arrays.asList(0L, null) : List.of(version)));
+    }
+
+    private void increment(Booking booking, Update update) {
+        LocalDate date = booking.getStartTime().toLocalDate();
+        update.inc("version", 1)
+                .setOnInsert("salonId", booking.getSalonId())
+                .setOnInsert("date", date);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(rollupId(booking.getSalonId(), date))),
+                update, SalonReportDaily.class);
+    }
+
+    private static void applyStatus(Update update, BookingStatus status, int price, int sign) {
+        if (status == BookingStatus.CONFIRM) {
+            update.inc("totalEarnings", (long) sign * price);
+        } else if (status == BookingStatus.CANCELLED) {
+            update.inc("cancelledBooking", sign);
+            update.inc("totalRefund", (long) sign * price);
+        }
+    }
+
+    private static SalonReportDaily add(SalonReportDaily day, SalonReportDaily more) {
+        day.setTotalBooking(day.getTotalBooking() + more.getTotalBooking());
+        day.setTotalEarnings(day.getTotalEarnings() + more.getTotalEarnings());
+        day.setCancelledBooking(day.getCancelledBooking() + more.getCancelledBooking());
+        day.setTotalRefund(day.getTotalRefund() + more.getTotalRefund());
+        return day;
+    }
+
+    private static ConditionalOperators.Cond statusAmount(BookingStatus status, Object amount) {
+        return ConditionalOperators.when(Criteria.where("status").is(status.name()))
+                .then(amount)
+                .otherwise(0);
+    }
+
+    private static SalonReportDaily toRollup(String salonId, Document row) {
+        LocalDate date = LocalDate.parse(row.getString("_id"));
+
+        SalonReportDaily rollup = new SalonReportDaily();
+        rollup.setId(rollupId(salonId, date));
+        rollup.setSalonId(salonId);
+        rollup.setDate(date);
+        rollup.setTotalBooking(((Number) row.get("totalBooking")).intValue());
+        rollup.setTotalEarnings(((Number) row.get("totalEarnings")).longValue());
+        rollup.setCancelledBooking(((Number) row.get("cancelledBooking")).intValue());
+        rollup.setTotalRefund(((Number) row.get("totalRefund")).longValue());
+        return rollup;
+    }
+
+    private static String rollupId(String salonId, LocalDate date) {
+        return salonId + ":" + date;
+    }
+
+    @Data
+    public static class RollupTotals {
+        private long totalEarnings;
+        private long totalBooking;
+        private long cancelledBooking;
+        private long totalRefund;
+    }
+}
@@ -0,0 +1,120 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.domain.JobStatus;
+import com.utkarshhh.model.MigrationCheckpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Builds the report rollups of every salon that already had bookings when
+ * the rollups were introduced. Runs once, on one replica under the job
+ * lease, rebuilding salons in id order and checkpointing the last one done
+ * so a restart resumes after it. Until a salon is reached its reports are
+ * computed from the bookings directly.
+ */
+@Slf4j
+@Service
+public class SalonReportSeedJob {
+
+    static final String JOB_ID = "salon-report-seed";
+
+    private final MongoTemplate mongoTemplate;
+    private final SalonReportRollupService salonReportRollupService;
+    private final JobLeaseService jobLeaseService;
+    private final Duration leaseDuration;
+
+    public SalonReportSeedJob(MongoTemplate mongoTemplate,
+                              SalonReportRollupService salonReportRollupService,
+                              JobLeaseService jobLeaseService,
+                              @Value("${booking.report.seed-lease:5m}") Duration leaseDuration) {
+        this.mongoTemplate = mongoTemplate;
+        this.salonReportRollupService = salonReportRollupService;
+        this.jobLeaseService = jobLeaseService;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread thread = new Thread(() -> {
+            try {
+                seed();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("{} stopped: {}", JOB_ID, e.getMessage());
+            }
+        }, JOB_ID);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Seeds the salons not yet done. Replicas that lose the lease keep
+     * checking until the job completes or the holder's lease lapses.
+     */
+    public void seed() throws InterruptedException {
+        while (!jobLeaseService.acquire(JOB_ID, leaseDuration)) {
+            if (isCompleted(mongoTemplate.findById(JOB_ID, MigrationCheckpoint.class))) {
+                return;
+            }
+            Thread.sleep(leaseDuration.toMillis());
+        }
+
+        MigrationCheckpoint checkpoint = mongoTemplate.findById(JOB_ID, MigrationCheckpoint.class);
+        if (isCompleted(checkpoint)) {
+            jobLeaseService.release(JOB_ID);
+            return;
+        }
+        if (checkpoint == null) {
+            checkpoint = new MigrationCheckpoint();
+            checkpoint.setId(JOB_ID);
+            checkpoint.setStartedAt(LocalDateTime.now());
+        } else {
+            log.info("Resuming {} after salon {}", JOB_ID, checkpoint.getLastSalonId());
+        }
+        checkpoint.setStatus(JobStatus.RUNNING);
+        checkpoint.setError(null);
+
+        try {
+            for (String salonId : salonReportRollupService.salonIds()) {
+                if (checkpoint.getLastSalonId() != null && salonId.compareTo(checkpoint.getLastSalonId()) <= 0) {
+                    continue;
+                }
+                // scanned counts salons, fixed the daily rollups written for them
+                checkpoint.setFixed(checkpoint.getFixed() + salonReportRollupService.rebuild(salonId));
+                checkpoint.setScanned(checkpoint.getScanned() + 1);
+                checkpoint.setLastSalonId(salonId);
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                mongoTemplate.save(checkpoint);
+                if (!jobLeaseService.renew(JOB_ID, leaseDuration)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            checkpoint.setStatus(JobStatus.FAILED);
+            checkpoint.setError(e.getMessage());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            mongoTemplate.save(checkpoint);
+            jobLeaseService.release(JOB_ID);
+            throw e;
+        }
+
+        checkpoint.setStatus(JobStatus.COMPLETED);
+        checkpoint.setFinishedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(checkpoint);
+        jobLeaseService.release(JOB_ID);
+        log.info("{} finished: {} salons, {} daily rollups", JOB_ID, checkpoint.getScanned(), checkpoint.getFixed());
+    }
+
+    private static boolean isCompleted(MigrationCheckpoint checkpoint) {
+        return checkpoint != null && checkpoint.getStatus() == JobStatus.COMPLETED;
+    }
+}
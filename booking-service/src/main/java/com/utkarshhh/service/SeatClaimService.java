@@ -0,0 +1,122 @@
+package com.utkarshhh.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.SeatClaim;
+import com.utkarshhh.util.SlotGranules;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * The multi-chair counterpart of {@link SlotClaimService}: a booking takes
+ * one of the salon's seats in every granule it covers. Seats are tried from
+ * zero upwards, one bulk insert per seat number for the granules still
+ * unplaced, so a claim costs at most as many round trips as the salon has
+ * chairs. When some granule has no seat left the partial claim is rolled
+ * back and the booking fails.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatClaimService {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final long ORPHAN_AGE_SECONDS = 60;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @param seatsAt how many seats the salon has in the granule starting at
+     *                the given time
+     */
+    public void claim(String salonId, String bookingId, LocalDateTime start, LocalDateTime end,
+                      ToIntFunction<LocalDateTime> seatsAt) throws Exception {
+        if (tryClaim(salonId, bookingId, start, end, seatsAt)) {
+            return;
+        }
+        if (removeOrphanedClaims(salonId, start, end) && tryClaim(salonId, bookingId, start, end, seatsAt)) {
+            return;
+        }
+        throw new Exception("Slot not available. Please choose a different time.");
+    }
+
+    public void release(String bookingId) {
+        mongoTemplate.remove(Query.query(Criteria.where("bookingId").is(bookingId)), SeatClaim.class);
+    }
+
+    private boolean tryClaim(String salonId, String bookingId, LocalDateTime start, LocalDateTime end,
+                             ToIntFunction<LocalDateTime> seatsAt) {
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDateTime> unplaced = SlotGranules.covering(start, end);
+
+        for (int seat = 0; !unplaced.isEmpty(); seat++) {
+            int current = seat;
+            if (unplaced.stream().anyMatch(granule -> seatsAt.applyAsInt(granule) <= current)) {
+                release(bookingId);
+                return false;
+            }
+            unplaced = insert(unplaced.stream()
+                    .map(granule -> new SeatClaim(salonId, granule, current, bookingId, now))
+                    .collect(Collectors.toList()));
+        }
+        return true;
+    }
+
+    // returns the granules whose seat was already taken
+    private List<LocalDateTime> insert(List<SeatClaim> claims) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SeatClaim.class)
+                    .insert(claims)
+                    .execute();
+            return List.of();
+        } catch (BulkOperationException e) {
+            List<LocalDateTime> taken = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                taken.add(claims.get(error.getIndex()).getGranule());
+            }
+            return taken;
+        }
+    }
+
+    private boolean removeOrphanedClaims(String salonId, LocalDateTime start, LocalDateTime end) {
+        List<SeatClaim> held = mongoTemplate.find(Query.query(Criteria.where("salonId").is(salonId)
+                        .and("granule").in(SlotGranules.covering(start, end))
+                        .and("createdAt").lt(LocalDateTime.now().minusSeconds(ORPHAN_AGE_SECONDS))),
+                SeatClaim.class);
+        if (held.isEmpty()) {
+            return false;
+        }
+
+        Set<String> holders = held.stream().map(SeatClaim::getBookingId).collect(Collectors.toSet());
+        Set<String> live = mongoTemplate.find(Query.query(Criteria.where("_id").in(holders)
+                        .and("status").ne(BookingStatus.CANCELLED)), Booking.class)
+                .stream()
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+        holders.removeAll(live);
+        if (holders.isEmpty()) {
+            return false;
+        }
+
+        log.warn("Releasing orphaned seat claims for salon {} held by {}", salonId, holders);
+        mongoTemplate.remove(Query.query(Criteria.where("bookingId").in(holders)), SeatClaim.class);
+        return true;
+    }
+}
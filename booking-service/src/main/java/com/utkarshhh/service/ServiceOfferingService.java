@@ -3,6 +3,21 @@ package com.utkarshhh.service;
 import com.utkarshhh.dto.ServiceDTO;
 import org.bson.types.ObjectId;
 
+import java.util.Map;
+import java.util.Set;
+
 public interface ServiceOfferingService {
     ServiceDTO getServiceById(String serviceId) throws Exception;
-}
\ No newline at end of file
+
+    /**
+     * Loads the given services, fetching any not already cached in one query.
+     * Fails listing every id that does not exist.
+     */
+    Set<ServiceDTO> getServicesByIds(Set<String> serviceIds) throws Exception;
+
+    /**
+     * Same lookup as {@link #getServicesByIds} keyed by id, leaving out ids
+     * that do not exist instead of failing.
+     */
+    Map<String, ServiceDTO> findServicesByIds(Set<String> serviceIds);
+}
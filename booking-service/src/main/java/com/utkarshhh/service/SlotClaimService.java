@@ -0,0 +1,128 @@
+package com.utkarshhh.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.SlotClaim;
+import com.utkarshhh.util.SlotGranules;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Makes slot ownership atomic across replicas: a booking inserts one claim
+ * per granule it covers and the unique (salonId, granule) index rejects any
+ * claim another booking already holds. No lock is taken; the loser of a race
+ * rolls back its partial claims and fails immediately. Claims are dropped
+ * when their booking is cancelled or completed, and a TTL index removes any
+ * claim a day after its granule has passed, since a past slot is never
+ * claimed again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SlotClaimService {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    // claims left behind by a create that died before saving its booking
+    private static final long ORPHAN_AGE_SECONDS = 60;
+
+    private final MongoTemplate mongoTemplate;
+
+    public void claim(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) throws Exception {
+        if (tryClaim(salonId, bookingId, start, end)) {
+            return;
+        }
+        if (removeOrphanedClaims(salonId, start, end) && tryClaim(salonId, bookingId, start, end)) {
+            return;
+        }
+        throw new Exception("Slot not available. Please choose a different time.");
+    }
+
+    public void release(String bookingId) {
+        mongoTemplate.remove(Query.query(Criteria.where("bookingId").is(bookingId)), SlotClaim.class);
+    }
+
+    /**
+     * Granules of [start, end) at the salon claimed by bookings other than
+     * the given one, after dropping orphaned claims. The capacity engine
+     * counts these as taken seats.
+     */
+    public Set<LocalDateTime> claimedGranules(String salonId, String bookingId, LocalDateTime start,
+                                              LocalDateTime end) {
+        Query query = Query.query(Criteria.where("salonId").is(salonId)
+                .and("granule").in(SlotGranules.covering(start, end))
+                .and("bookingId").ne(bookingId));
+        List<SlotClaim> held = mongoTemplate.find(query, SlotClaim.class);
+        if (!held.isEmpty() && removeOrphanedClaims(salonId, start, end)) {
+            held = mongoTemplate.find(query, SlotClaim.class);
+        }
+        return held.stream().map(SlotClaim::getGranule).collect(Collectors.toSet());
+    }
+
+    // cancelled and completed are final, so a booking's claims only ever need releasing
+    public void onStatusChanged(Booking booking, BookingStatus previousStatus) {
+        if (booking.getStatus() == BookingStatus.CANCELLED || booking.getStatus() == BookingStatus.COMPLETED) {
+            release(booking.getId());
+        }
+    }
+
+    private boolean tryClaim(String salonId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now();
+        List<SlotClaim> claims = SlotGranules.covering(start, end).stream()
+                .map(granule -> new SlotClaim(salonId, granule, bookingId, now))
+                .collect(Collectors.toList());
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SlotClaim.class)
+                    .insert(claims)
+                    .execute();
+            return true;
+        } catch (BulkOperationException e) {
+            // the granules that did insert are ours either way and must not outlive the failed claim
+            release(bookingId);
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+            return false;
+        }
+    }
+
+    private boolean removeOrphanedClaims(String salonId, LocalDateTime start, LocalDateTime end) {
+        List<SlotClaim> held = mongoTemplate.find(Query.query(Criteria.where("salonId").is(salonId)
+                        .and("granule").in(SlotGranules.covering(start, end))
+                        .and("createdAt").lt(LocalDateTime.now().minusSeconds(ORPHAN_AGE_SECONDS))),
+                SlotClaim.class);
+        if (held.isEmpty()) {
+            return false;
+        }
+
+        Set<String> holders = held.stream().map(SlotClaim::getBookingId).collect(Collectors.toSet());
+        Set<String> live = mongoTemplate.find(Query.query(Criteria.where("_id").in(holders)
+                        .and("status").ne(BookingStatus.CANCELLED)), Booking.class)
+                .stream()
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+        holders.removeAll(live);
+        if (holders.isEmpty()) {
+            return false;
+        }
+
+        log.warn("Releasing orphaned slot claims for salon {} held by {}", salonId, holders);
+        mongoTemplate.remove(Query.query(Criteria.where("bookingId").in(holders)), SlotClaim.class);
+        return true;
+    }
+}
@@ -0,0 +1,131 @@
+package com.utkarshhh.util;
+
+import java.util.Arrays;
+
+/**
+ * Concurrent occupancy of a salon that serves more than one booking at a
+ * time. Bookings and stylist shifts become start/end events that are sorted
+ * once and swept in time order, keeping a running count of taken chairs and
+ * of stylists on shift; wherever the taken chairs reach the capacity, which
+ * is the chair count capped by the stylists on shift when shifts are tracked,
+ * the salon is full. O(n log n) in the number of intervals. Times are epoch
+ * seconds; intervals are half-open [start, end).
+ */
+public class CapacitySweep {
+
+    private static final int BOOKING_START = 0;
+    private static final int BOOKING_END = 1;
+    private static final int SHIFT_START = 2;
+    private static final int SHIFT_END = 3;
+
+    private final int chairs;
+    private final boolean staffed;
+    // (time << 2) | kind, so one primitive sort orders the events by time
+    private long[] events = new long[16];
+    private int size;
+
+    /**
+     * @param staffed whether stylist shifts limit capacity; when true, times
+     *                with no shift added have no capacity at all
+     */
+    public CapacitySweep(int chairs, boolean staffed) {
+        this.chairs = chairs;
+        this.staffed = staffed;
+    }
+
+    public void addBooking(long start, long end) {
+        add(start, BOOKING_START);
+        add(end, BOOKING_END);
+    }
+
+    public void addShift(long start, long end) {
+        add(start, SHIFT_START);
+        add(end, SHIFT_END);
+    }
+
+    /**
+     * True when one more booking over [start, end) keeps occupancy within
+     * capacity throughout.
+     */
+    public boolean fits(long start, long end) {
+        return !sweep(start, end, null);
+    }
+
+    /**
+     * Reports the maximal stretches of [from, to) where no further booking
+     * fits, in time order.
+     */
+    public void forEachFull(long from, long to, RangeConsumer consumer) {
+        sweep(from, to, consumer);
+    }
+
+    @FunctionalInterface
+    public interface RangeConsumer {
+        void accept(long start, long end);
+    }
+
+    // stops at the first full stretch when there is no consumer to report to
+    private boolean sweep(long from, long to, RangeConsumer consumer) {
+        long[] sorted = Arrays.copyOf(events, size);
+        Arrays.sort(sorted);
+
+        int busy = 0;
+        int staff = 0;
+        int i = 0;
+        for (; i < sorted.length && time(sorted[i]) <= from; i++) {
+            busy += busyDelta(sorted[i]);
+            staff += staffDelta(sorted[i]);
+        }
+
+        boolean anyFull = false;
+        long fullSince = -1;
+        long segmentStart = from;
+        while (segmentStart < to) {
+            long segmentEnd = i < sorted.length ? Math.min(time(sorted[i]), to) : to;
+            boolean full = busy >= (staffed ? Math.min(chairs, staff) : chairs);
+            if (full) {
+                anyFull = true;
+                if (consumer == null) {
+                    return true;
+                }
+                if (fullSince < 0) {
+                    fullSince = segmentStart;
+                }
+            } else if (fullSince >= 0) {
+                consumer.accept(fullSince, segmentStart);
+                fullSince = -1;
+            }
+
+            segmentStart = segmentEnd;
+            for (; i < sorted.length && time(sorted[i]) <= segmentStart; i++) {
+                busy += busyDelta(sorted[i]);
+                staff += staffDelta(sorted[i]);
+            }
+        }
+        if (fullSince >= 0) {
+            consumer.accept(fullSince, to);
+        }
+        return anyFull;
+    }
+
+    private void add(long time, int kind) {
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+        }
+        events[size++] = (time << 2) | kind;
+    }
+
+    private static long time(long event) {
+        return event >> 2;
+    }
+
+    private static int busyDelta(long event) {
+        int kind = (int) (event & 3);
+        return kind == BOOKING_START ? 1 : kind == BOOKING_END ? -1 : 0;
+    }
+
+    private static int staffDelta(long event) {
+        int kind = (int) (event & 3);
+        return kind == SHIFT_START ? 1 : kind == SHIFT_END ? -1 : 0;
+    }
+}
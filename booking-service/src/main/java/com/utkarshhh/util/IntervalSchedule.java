@@ -0,0 +1,102 @@
+package com.utkarshhh.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Intervals of a single salon day in a tree keyed on start, with an id map
+ * and a multiset of interval lengths beside it. Adding and removing are
+ * O(log n). An interval overlapping [start, end) must start within the
+ * longest interval's length before {@code start}, so a probe only walks the
+ * starts in that range. Times are epoch seconds; intervals are half-open
+ * [start, end).
+ */
+public class IntervalSchedule {
+
+    private final NavigableMap<Key, Long> byStart = new TreeMap<>();
+    private final Map<String, Key> keys = new HashMap<>();
+    private final TreeMap<Long, Integer> lengths = new TreeMap<>();
+
+    public synchronized boolean overlaps(long start, long end) {
+        for (Map.Entry<Key, Long> interval : candidates(start, end).entrySet()) {
+            if (interval.getValue() > start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized boolean addIfFree(String id, long start, long end) {
+        if (overlaps(start, end)) {
+            return false;
+        }
+        insert(id, start, end);
+        return true;
+    }
+
+    public synchronized void add(String id, long start, long end) {
+        removeById(id);
+        insert(id, start, end);
+    }
+
+    public synchronized boolean remove(String id) {
+        return removeById(id);
+    }
+
+    public synchronized int size() {
+        return keys.size();
+    }
+
+    public synchronized void forEachOverlapping(long start, long end, IntervalConsumer consumer) {
+        for (Map.Entry<Key, Long> interval : candidates(start, end).entrySet()) {
+            if (interval.getValue() > start) {
+                consumer.accept(interval.getKey().id(), interval.getKey().start(), interval.getValue());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface IntervalConsumer {
+        void accept(String id, long start, long end);
+    }
+
+    // intervals starting in (start - longest, end), the only ones that can reach into [start, end)
+    private NavigableMap<Key, Long> candidates(long start, long end) {
+        if (lengths.isEmpty()) {
+            return byStart;
+        }
+        long from = start - lengths.lastKey() + 1;
+        if (from >= end) {
+            return new TreeMap<>();
+        }
+        return byStart.subMap(new Key(from, ""), true, new Key(end, ""), false);
+    }
+
+    private void insert(String id, long start, long end) {
+        Key key = new Key(start, id);
+        byStart.put(key, end);
+        keys.put(id, key);
+        lengths.merge(end - start, 1, Integer::sum);
+    }
+
+    private boolean removeById(String id) {
+        Key key = keys.remove(id);
+        if (key == null) {
+            return false;
+        }
+        long end = byStart.remove(key);
+        lengths.computeIfPresent(end - key.start(), (length, count) -> count == 1 ? null : count - 1);
+        return true;
+    }
+
+    // ids are never empty, so an empty id sorts before every interval with the same start
+    private record Key(long start, String id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byTime = Long.compare(start, other.start);
+            return byTime != 0 ? byTime : id.compareTo(other.id);
+        }
+    }
+}
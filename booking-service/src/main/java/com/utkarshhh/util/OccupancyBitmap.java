@@ -0,0 +1,103 @@
+package com.utkarshhh.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * One bit per {@link SlotGranules#GRANULE_MINUTES}-minute granule between
+ * {@code origin} and {@code origin + size} granules; a set bit is occupied.
+ */
+public class OccupancyBitmap {
+
+    private static final long GRANULE_SECONDS = SlotGranules.GRANULE_MINUTES * 60L;
+
+    private final LocalDateTime origin;
+    private final long originSeconds;
+    private final int size;
+    private final BitSet occupied;
+
+    public OccupancyBitmap(LocalDateTime from, LocalDateTime to) {
+        this.origin = SlotGranules.ceil(from);
+        this.originSeconds = origin.toEpochSecond(ZoneOffset.UTC);
+        LocalDateTime last = SlotGranules.floor(to);
+        this.size = last.isAfter(origin)
+                ? (int) ((last.toEpochSecond(ZoneOffset.UTC) - originSeconds) / GRANULE_SECONDS)
+                : 0;
+        this.occupied = new BitSet(size);
+    }
+
+    public LocalDateTime getOrigin() {
+        return origin;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public BitSet bits() {
+        return occupied;
+    }
+
+    public void occupy(long startSeconds, long endSeconds) {
+        int from = fromIndex(startSeconds);
+        int to = toIndex(startSeconds, endSeconds);
+        if (from < to) {
+            occupied.set(from, to);
+        }
+    }
+
+    public void occupy(LocalDateTime start, LocalDateTime end) {
+        occupy(start.toEpochSecond(ZoneOffset.UTC), end.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * True when no granule the window touches is occupied. Granules outside
+     * the bitmap are not tracked and count as free.
+     */
+    public boolean isFree(LocalDateTime start, LocalDateTime end) {
+        long startSeconds = start.toEpochSecond(ZoneOffset.UTC);
+        int from = fromIndex(startSeconds);
+        int to = toIndex(startSeconds, end.toEpochSecond(ZoneOffset.UTC));
+        int next = occupied.nextSetBit(from);
+        return from >= to || next < 0 || next >= to;
+    }
+
+    private int fromIndex(long startSeconds) {
+        return (int) Math.max(0, Math.floorDiv(startSeconds - originSeconds, GRANULE_SECONDS));
+    }
+
+    // a zero-length window still touches the granule it starts in
+    private int toIndex(long startSeconds, long endSeconds) {
+        long end = Math.max(endSeconds, startSeconds + 1);
+        return (int) Math.min(size, Math.max(0, -Math.floorDiv(originSeconds - end, GRANULE_SECONDS)));
+    }
+
+    /**
+     * Start times, one granule apart, at which {@code minutes} of consecutive
+     * free time fit. Walks free runs with nextClearBit/nextSetBit, so the cost
+     * is linear in the number of granules at worst.
+     */
+    public List<LocalDateTime> freeStarts(int minutes, LocalDateTime notBefore) {
+        int needed = Math.max(1, (minutes + SlotGranules.GRANULE_MINUTES - 1) / SlotGranules.GRANULE_MINUTES);
+        List<LocalDateTime> starts = new ArrayList<>();
+
+        int runStart = occupied.nextClearBit(0);
+        while (runStart < size) {
+            int runEnd = occupied.nextSetBit(runStart);
+            if (runEnd < 0 || runEnd > size) {
+                runEnd = size;
+            }
+            for (int i = runStart; i + needed <= runEnd; i++) {
+                LocalDateTime start = origin.plusMinutes((long) i * SlotGranules.GRANULE_MINUTES);
+                if (notBefore == null || !start.isBefore(notBefore)) {
+                    starts.add(start);
+                }
+            }
+            runStart = occupied.nextClearBit(runEnd);
+        }
+        return starts;
+    }
+}
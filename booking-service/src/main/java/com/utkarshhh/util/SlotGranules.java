@@ -0,0 +1,41 @@
+package com.utkarshhh.util;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed 5-minute slices of the day used by slot claims and occupancy maps.
+ * A window occupies every granule it touches, so unaligned bookings are
+ * rounded outwards.
+ */
+public final class SlotGranules {
+
+    public static final int GRANULE_MINUTES = 5;
+
+    private SlotGranules() {
+    }
+
+    public static LocalDateTime floor(LocalDateTime time) {
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        return minute.minusMinutes(minute.getMinute() % GRANULE_MINUTES);
+    }
+
+    public static LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime floor = floor(time);
+        return floor.isEqual(time) ? floor : floor.plusMinutes(GRANULE_MINUTES);
+    }
+
+    public static List<LocalDateTime> covering(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> granules = new ArrayList<>();
+        LocalDateTime last = ceil(end);
+        for (LocalDateTime granule = floor(start); granule.isBefore(last); granule = granule.plusMinutes(GRANULE_MINUTES)) {
+            granules.add(granule);
+        }
+        if (granules.isEmpty()) {
+            granules.add(floor(start));
+        }
+        return granules;
+    }
+}
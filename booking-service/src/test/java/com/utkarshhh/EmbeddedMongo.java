@@ -0,0 +1,53 @@
+package com.utkarshhh;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.utkarshhh.config.MongoIndexConfig;
+import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.repository.BookingRepositoryCustomImpl;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.ServerVersion;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+/**
+ * An in-memory mongo-java-server with the service's indexes in place, for
+ * tests that need real inserts, unique keys and atomic updates. Start one
+ * per test and close it afterwards.
+ */
+public final class EmbeddedMongo implements AutoCloseable {
+
+	private final MongoServer server;
+	private final MongoClient client;
+	private final MongoTemplate mongoTemplate;
+
+	private EmbeddedMongo() {
+		server = new MongoServer(new MemoryBackend().version(ServerVersion.MONGO_5_0));
+		client = MongoClients.create(server.bindAndGetConnectionString());
+		mongoTemplate = new MongoTemplate(client, "test");
+		new MongoIndexConfig(mongoTemplate, (MongoMappingContext) mongoTemplate.getConverter().getMappingContext())
+				.ensureIndexes();
+	}
+
+	public static EmbeddedMongo start() {
+		return new EmbeddedMongo();
+	}
+
+	public MongoTemplate template() {
+		return mongoTemplate;
+	}
+
+	public BookingRepository bookingRepository() {
+		return new MongoRepositoryFactory(mongoTemplate).getRepository(BookingRepository.class,
+				RepositoryFragments.just(new BookingRepositoryCustomImpl(mongoTemplate)));
+	}
+
+	@Override
+	public void close() {
+		client.close();
+		server.shutdownNow();
+	}
+}
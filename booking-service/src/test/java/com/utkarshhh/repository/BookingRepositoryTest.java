@@ -0,0 +1,130 @@
+package com.utkarshhh.repository;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.dto.BookingPageRequest;
+import com.utkarshhh.dto.BookingSummaryDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.util.BookingCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingRepositoryTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 5, 0, 0);
+
+	private EmbeddedMongo mongo;
+	private BookingRepository bookingRepository;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		bookingRepository = mongo.bookingRepository();
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void activeOverlappingKeepsTheWindowAndLiveHolds() {
+		LocalDateTime now = DAY.plusHours(8);
+		save("previous-day", DAY.minusHours(14), DAY.minusHours(13), BookingStatus.CONFIRM, null);
+		save("overnight", DAY.minusHours(2), DAY.plusHours(1), BookingStatus.CONFIRM, null);
+		save("morning", DAY.plusHours(10), DAY.plusHours(11), BookingStatus.CONFIRM, null);
+		save("cancelled", DAY.plusHours(12), DAY.plusHours(13), BookingStatus.CANCELLED, null);
+		save("live-hold", DAY.plusHours(14), DAY.plusHours(15), BookingStatus.PENDING, now.plusMinutes(5));
+		save("lapsed-hold", DAY.plusHours(16), DAY.plusHours(17), BookingStatus.PENDING, now.minusMinutes(5));
+		// longer than any opening, so only reachable without the startTime lower bound
+		save("impossible", DAY.minusDays(2), DAY.plusHours(1), BookingStatus.CONFIRM, null);
+		save("next-day", DAY.plusDays(1), DAY.plusDays(1).plusHours(1), BookingStatus.CONFIRM, null);
+
+		List<Booking> active = bookingRepository.findActiveBySalonIdOverlapping("salon", DAY, DAY.plusDays(1), now);
+
+		assertEquals(Set.of("overnight", "morning", "live-hold"),
+				active.stream().map(Booking::getId).collect(Collectors.toSet()));
+		assertEquals(3, bookingRepository.findActiveSummariesBySalonIdOverlapping("salon", DAY, DAY.plusDays(1), now)
+				.size());
+	}
+
+	@Test
+	void archivedPagesMergeInStartTimeOrder() {
+		save("hot-1", DAY.plusHours(9), DAY.plusHours(10), BookingStatus.CONFIRM, null);
+		save("hot-2", DAY.plusHours(12), DAY.plusHours(13), BookingStatus.CONFIRM, null);
+		archive("cold-1", DAY.plusHours(8));
+		archive("cold-2", DAY.plusHours(11));
+
+		BookingPageRequest request = new BookingPageRequest();
+		request.setSalonId("salon");
+		assertEquals(List.of("hot-1", "hot-2"), ids(bookingRepository.findPage(request, null, 3)));
+
+		request.setIncludeArchived(true);
+		List<Booking> first = bookingRepository.findPage(request, null, 3);
+		assertEquals(List.of("cold-1", "hot-1", "cold-2"), ids(first));
+		Booking last = first.get(first.size() - 1);
+		assertEquals(List.of("hot-2"), ids(bookingRepository.findPage(request,
+				new BookingCursor(last.getStartTime(), last.getId()), 3)));
+		assertEquals(List.of("cold-1", "hot-1", "cold-2"), bookingRepository.findSummaryPage(request, null, 3).stream()
+				.map(BookingSummaryDTO::getId).collect(Collectors.toList()));
+	}
+
+	@Test
+	void insertAllWritesAroundARowThatCollides() {
+		save("b2", DAY.plusHours(9), DAY.plusHours(10), BookingStatus.CONFIRM, null);
+		List<Booking> batch = List.of(booking("b1", DAY.plusHours(10)), booking("b2", DAY.plusHours(11)),
+				booking("b3", DAY.plusHours(12)));
+
+		Map<String, String> failed = bookingRepository.insertAll(batch);
+
+		assertEquals(Set.of("b2"), failed.keySet());
+		assertEquals(Set.of("b1", "b2", "b3"), bookingRepository.findAll().stream()
+				.map(Booking::getId).collect(Collectors.toSet()));
+		// the stored b2 is the earlier booking, not the rejected row
+		assertEquals(DAY.plusHours(9), bookingRepository.findById("b2").orElseThrow().getStartTime());
+	}
+
+	private static Booking booking(String id, LocalDateTime start) {
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setSalonId("salon");
+		booking.setStartTime(start);
+		booking.setEndTime(start.plusHours(1));
+		return booking;
+	}
+
+	private void archive(String id, LocalDateTime start) {
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setSalonId("salon");
+		booking.setStartTime(start);
+		booking.setEndTime(start.plusHours(1));
+		booking.setStatus(BookingStatus.COMPLETED);
+		mongo.template().save(booking, BookingRepositoryCustom.ARCHIVE_COLLECTION);
+	}
+
+	private static List<String> ids(List<Booking> bookings) {
+		return bookings.stream().map(Booking::getId).collect(Collectors.toList());
+	}
+
+	private void save(String id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+					  LocalDateTime holdExpiresAt) {
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setSalonId("salon");
+		booking.setStartTime(start);
+		booking.setEndTime(end);
+		booking.setStatus(status);
+		booking.setHoldExpiresAt(holdExpiresAt);
+		bookingRepository.save(booking);
+	}
+}
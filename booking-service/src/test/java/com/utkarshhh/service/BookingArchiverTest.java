@@ -0,0 +1,184 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.JobStatus;
+import com.utkarshhh.domain.OutboxState;
+import com.utkarshhh.domain.PaymentStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.MigrationCheckpoint;
+import com.utkarshhh.model.OutboxMessage;
+import com.utkarshhh.model.SlotClaim;
+import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.repository.BookingRepositoryCustom;
+import com.utkarshhh.service.Impl.BookingServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class BookingArchiverTest {
+
+	private static final LocalDateTime OLD = LocalDateTime.now().minusDays(200).withNano(0);
+
+	private EmbeddedMongo mongo;
+	private BookingRepository bookingRepository;
+	private BookingArchiver bookingArchiver;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		bookingRepository = mongo.bookingRepository();
+		// a batch of two makes the pass span several batches
+		bookingArchiver = new BookingArchiver(mongo.template(), leasedJob(), Duration.ofDays(180), 2,
+				Duration.ofMinutes(10));
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void movesOnlyOldFinishedBookings() {
+		save("a-completed", BookingStatus.COMPLETED, OLD, null);
+		save("b-cancelled", BookingStatus.CANCELLED, OLD, null);
+		save("c-sent", BookingStatus.COMPLETED, OLD, OutboxState.SENT);
+		save("d-confirmed", BookingStatus.CONFIRM, OLD, null);
+		save("e-recent", BookingStatus.COMPLETED, LocalDateTime.now().minusDays(1), null);
+		save("f-unsent", BookingStatus.COMPLETED, OLD, OutboxState.PENDING);
+		claim("a-completed", OLD);
+		claim("d-confirmed", OLD.plusHours(2));
+
+		bookingArchiver.archive();
+
+		assertEquals(Set.of("a-completed", "b-cancelled", "c-sent"), ids(archived()));
+		assertEquals(Set.of("d-confirmed", "e-recent", "f-unsent"), ids(bookingRepository.findAll()));
+		// the archived booking's claim goes with it; the live one's stays
+		assertEquals(Set.of("d-confirmed"), mongo.template().findAll(SlotClaim.class).stream()
+				.map(SlotClaim::getBookingId).collect(Collectors.toSet()));
+
+		MigrationCheckpoint checkpoint = mongo.template().findById(BookingArchiver.JOB_ID, MigrationCheckpoint.class);
+		assertEquals(JobStatus.COMPLETED, checkpoint.getStatus());
+		assertEquals(3, checkpoint.getFixed());
+	}
+
+	@Test
+	void redoingABatchWhoseDeleteDidNotRunIsHarmless() {
+		save("a-completed", BookingStatus.COMPLETED, OLD, null);
+		save("b-cancelled", BookingStatus.CANCELLED, OLD, null);
+		// a pass that copied a-completed and stopped before deleting it
+		mongo.template().save(bookingRepository.findById("a-completed").orElseThrow(),
+				BookingRepositoryCustom.ARCHIVE_COLLECTION);
+
+		bookingArchiver.archive();
+		bookingArchiver.archive();
+
+		assertEquals(2, archived().size());
+		assertTrue(bookingRepository.findAll().isEmpty());
+	}
+
+	@Test
+	void rowsUpdatedBetweenCopyAndDeleteAreNotLost() {
+		save("a-completed", BookingStatus.COMPLETED, OLD, null);
+		save("b-cancelled", BookingStatus.CANCELLED, OLD, null);
+		claim("b-cancelled", OLD);
+		// writes landing after the copy: a late refund, and a lapsed hold reclaimed by its payment
+		MongoTemplate racing = spy(mongo.template());
+		doAnswer(invocation -> {
+			mongo.template().updateFirst(Query.query(Criteria.where("_id").is("a-completed")),
+					new Update().set("paymentStatus", PaymentStatus.REFUND_DUE), Booking.class);
+			mongo.template().updateFirst(Query.query(Criteria.where("_id").is("b-cancelled")),
+					new Update().set("status", BookingStatus.CONFIRM), Booking.class);
+			return invocation.callRealMethod();
+		}).when(racing).bulkOps(any(BulkOperations.BulkMode.class), eq(Booking.class));
+		bookingArchiver = new BookingArchiver(racing, leasedJob(), Duration.ofDays(180), 2, Duration.ofMinutes(10));
+
+		bookingArchiver.archive();
+
+		assertEquals(List.of("a-completed"), archived().stream().map(Booking::getId).toList());
+		assertEquals(PaymentStatus.REFUND_DUE, archived().get(0).getPaymentStatus());
+		assertEquals(Set.of("b-cancelled"), ids(bookingRepository.findAll()));
+		assertEquals(BookingStatus.CONFIRM, bookingRepository.findById("b-cancelled").orElseThrow().getStatus());
+		assertEquals(1, mongo.template().findAll(SlotClaim.class).size());
+	}
+
+	@Test
+	void lookupsFallThroughToTheArchive() throws Exception {
+		save("a-completed", BookingStatus.COMPLETED, OLD, null);
+		save("z-live", BookingStatus.CONFIRM, OLD.plusDays(1), null);
+		bookingArchiver.archive();
+
+		BookingServiceImpl bookingService = new BookingServiceImpl(bookingRepository, mock(AvailabilityEngine.class),
+				mock(SalonReportRollupService.class), mock(HoldExpiryService.class),
+				mock(AvailabilityHeatmapService.class));
+
+		assertTrue(bookingRepository.findById("a-completed").isEmpty());
+		assertEquals("a-completed", bookingService.getBookingById("a-completed").getId());
+		assertEquals("z-live", bookingService.getBookingById("z-live").getId());
+		assertThrows(Exception.class, () -> bookingService.getBookingById("missing"));
+
+		assertEquals(Set.of("z-live"), ids(bookingService.getBookingsByCustomer("customer", false)));
+		assertEquals(Set.of("a-completed", "z-live"), ids(bookingService.getBookingsByCustomer("customer", true)));
+		assertEquals(2, bookingService.getBookingSummariesByCustomer("customer", true).size());
+	}
+
+	private void save(String id, BookingStatus status, LocalDateTime start, OutboxState outboxState) {
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setSalonId("salon");
+		booking.setCustomerId("customer");
+		booking.setStartTime(start);
+		booking.setEndTime(start.plusHours(1));
+		booking.setStatus(status);
+		if (outboxState != null) {
+			OutboxMessage outbox = new OutboxMessage();
+			outbox.setState(outboxState);
+			booking.setOutbox(outbox);
+		}
+		bookingRepository.save(booking);
+	}
+
+	private void claim(String bookingId, LocalDateTime granule) {
+		SlotClaim claim = new SlotClaim();
+		claim.setSalonId("salon");
+		claim.setGranule(granule);
+		claim.setBookingId(bookingId);
+		mongo.template().save(claim);
+	}
+
+	private static JobLeaseService leasedJob() {
+		JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+		when(jobLeaseService.acquire(any(), any())).thenReturn(true);
+		when(jobLeaseService.renew(any(), any())).thenReturn(true);
+		return jobLeaseService;
+	}
+
+	private List<Booking> archived() {
+		return mongo.template().findAll(Booking.class, BookingRepositoryCustom.ARCHIVE_COLLECTION);
+	}
+
+	private static Set<String> ids(List<Booking> bookings) {
+		return bookings.stream().map(Booking::getId).collect(Collectors.toSet());
+	}
+}
@@ -0,0 +1,58 @@
+package com.utkarshhh.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.ExportFormat;
+import com.utkarshhh.model.Booking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingExportServiceTest {
+
+	private static final LocalDateTime TEN = LocalDateTime.of(2030, 1, 5, 10, 0);
+
+	private EmbeddedMongo mongo;
+	private BookingExportService bookingExportService;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		bookingExportService = new BookingExportService(mongo.template(), new ObjectMapper());
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void csvNeutralizesFormulaCells() throws Exception {
+		Booking booking = new Booking();
+		booking.setId("b1");
+		booking.setSalonId("salon");
+		booking.setCustomerId("c1");
+		booking.setCustomerName("=HYPERLINK(\"http://x\",\"a\")");
+		booking.setCustomerEmail("@evil");
+		booking.setStartTime(TEN);
+		booking.setEndTime(TEN.plusHours(1));
+		booking.setServiceIds(Set.of("-1+1"));
+		booking.setStatus(BookingStatus.CONFIRM);
+		mongo.template().save(booking);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		bookingExportService.export("salon", null, null, ExportFormat.CSV, out);
+
+		String row = out.toString(StandardCharsets.UTF_8).split("\n")[1];
+		assertEquals("b1,salon,c1,\"'=HYPERLINK(\"\"http://x\"\",\"\"a\"\")\",'@evil,"
+				+ TEN + "," + TEN.plusHours(1) + ",'-1+1,CONFIRM,PENDING,,0", row);
+	}
+}
@@ -0,0 +1,146 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.SeriesStatus;
+import com.utkarshhh.dto.BatchBookingResultDTO;
+import com.utkarshhh.dto.BookingDTO;
+import com.utkarshhh.dto.BookingSeriesRequest;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.model.BookingSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingSeriesServiceTest {
+
+	private EmbeddedMongo mongo;
+	private BookingService bookingService;
+	private BookingSeriesService bookingSeriesService;
+	private UserDTO customer;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		mongo = EmbeddedMongo.start();
+		bookingService = mock(BookingService.class);
+		SalonService salonService = mock(SalonService.class);
+		when(salonService.getSalonById("salon")).thenReturn(new SalonDTO());
+		bookingSeriesService = new BookingSeriesService(mongo.template(), bookingService, salonService,
+				mock(ServiceOfferingService.class), 28, 1000);
+
+		customer = new UserDTO();
+		customer.setId("42");
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void firstExpansionFailureIsReportedAndLeavesNoSeries() {
+		when(bookingService.createBookings(any(), any(), anyList(), anyMap(), anyString()))
+				.thenThrow(new IllegalStateException("salon service unavailable"));
+
+		Exception e = assertThrows(Exception.class, () -> bookingSeriesService.createSeries(request(), customer));
+
+		assertEquals("Could not book the series: salon service unavailable", e.getMessage());
+		assertEquals(0, mongo.template().count(new Query(),
+				BookingSeries.class));
+	}
+
+	@Test
+	void seriesWithNoBookableOccurrenceIsRefused() {
+		when(bookingService.createBookings(any(), any(), anyList(), anyMap(), anyString()))
+				.thenAnswer(invocation -> results(invocation.<List<?>>getArgument(2).size(), false));
+
+		Exception e = assertThrows(Exception.class, () -> bookingSeriesService.createSeries(request(), customer));
+
+		assertEquals("Could not book the series: Slot not available", e.getMessage());
+	}
+
+	@Test
+	void onlyTheOwnerCancelsTheSeries() throws Exception {
+		when(bookingService.createBookings(any(), any(), anyList(), anyMap(), anyString()))
+				.thenAnswer(invocation -> results(invocation.<List<?>>getArgument(2).size(), true));
+		BookingSeries series = bookingSeriesService.createSeries(request(), customer);
+		assertEquals(4, series.getCreated());
+
+		assertThrows(Exception.class, () -> bookingSeriesService.cancelSeries(series.getId(), "7"));
+		assertEquals(SeriesStatus.ACTIVE, bookingSeriesService.getSeries(series.getId()).getStatus());
+		verify(bookingService, never()).updateBooking(anyString(), any(BookingStatus.class));
+
+		assertEquals(SeriesStatus.CANCELLED, bookingSeriesService.cancelSeries(series.getId(), "42").getStatus());
+	}
+
+	@Test
+	void occurrencesBookedWhileTheSeriesWasCancelledAreCancelledToo() throws Exception {
+		when(bookingService.createBookings(any(), any(), anyList(), anyMap(), anyString()))
+				.thenAnswer(invocation -> results(invocation.<List<?>>getArgument(2).size(), true));
+		BookingSeries series = bookingSeriesService.createSeries(request(), customer);
+
+		// a scheduled pass with a longer horizon, during which the customer cancels
+		BookingSeriesService laterPass = new BookingSeriesService(mongo.template(), bookingService,
+				mock(SalonService.class), mock(ServiceOfferingService.class), 56, 1000);
+		when(bookingService.createBookings(any(), any(), anyList(), anyMap(), anyString()))
+				.thenAnswer(invocation -> {
+					mongo.template().updateFirst(Query.query(Criteria.where("_id").is(series.getId())),
+							new Update().set("status", SeriesStatus.CANCELLED), BookingSeries.class);
+					return results(invocation.<List<?>>getArgument(2).size(), true);
+				});
+		laterPass.expandDueSeries();
+
+		for (int i = 0; i < 4; i++) {
+			verify(bookingService).updateBooking("occurrence-" + i, BookingStatus.CANCELLED);
+		}
+		BookingSeries cancelled = bookingSeriesService.getSeries(series.getId());
+		assertEquals(SeriesStatus.CANCELLED, cancelled.getStatus());
+		assertEquals(4, cancelled.getCreated());
+	}
+
+	private static BookingSeriesRequest request() {
+		BookingSeriesRequest request = new BookingSeriesRequest();
+		request.setSalonId("salon");
+		request.setServiceIds(Set.of("cut"));
+		request.setStartTime(LocalDateTime.now().plusDays(2).withNano(0));
+		request.setCount(10);
+		return request;
+	}
+
+	private static List<BatchBookingResultDTO> results(int size, boolean created) {
+		List<BatchBookingResultDTO> results = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			BatchBookingResultDTO result = new BatchBookingResultDTO();
+			result.setIndex(i);
+			result.setCreated(created);
+			if (created) {
+				BookingDTO booking = new BookingDTO();
+				booking.setId("occurrence-" + i);
+				result.setBooking(booking);
+			}
+			result.setError(created ? null : "Slot not available");
+			results.add(result);
+		}
+		return results;
+	}
+}
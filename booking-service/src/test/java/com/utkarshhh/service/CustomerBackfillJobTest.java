@@ -0,0 +1,85 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.client.UserClient;
+import com.utkarshhh.domain.JobStatus;
+import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.model.Booking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerBackfillJobTest {
+
+	private static final Duration LEASE = Duration.ofSeconds(30);
+
+	private EmbeddedMongo mongo;
+	private UserClient userClient;
+	private CustomerBackfillJob job;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		userClient = mock(UserClient.class);
+		job = new CustomerBackfillJob(mongo.template(), userClient, new JobLeaseService(mongo.template()), 2, 2, LEASE);
+		for (int i = 0; i < 5; i++) {
+			Booking booking = new Booking();
+			booking.setId("booking-" + i);
+			booking.setCustomerId("customer-" + i);
+			mongo.template().save(booking);
+		}
+		when(userClient.getUser(anyString())).thenAnswer(invocation -> {
+			UserDTO user = new UserDTO();
+			user.setId(invocation.getArgument(0));
+			user.setFullName("Name of " + invocation.getArgument(0));
+			user.setEmail(invocation.getArgument(0) + "@example.com");
+			return user;
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void waitsWhileAnotherReplicaHoldsTheLease() throws InterruptedException {
+		JobLeaseService otherReplica = new JobLeaseService(mongo.template());
+		otherReplica.acquire(CustomerBackfillJob.JOB_ID, LEASE);
+
+		job.start();
+		awaitIdle();
+
+		verify(userClient, never()).getUser(anyString());
+		assertNull(mongo.template().findById("booking-0", Booking.class).getCustomerName());
+
+		otherReplica.release(CustomerBackfillJob.JOB_ID);
+		job.start();
+		awaitIdle();
+
+		assertEquals(JobStatus.COMPLETED, job.status().getStatus());
+		assertEquals(5, job.status().getFixed());
+		assertEquals("Name of customer-4", mongo.template().findById("booking-4", Booking.class).getCustomerName());
+	}
+
+	private void awaitIdle() throws InterruptedException {
+		for (int i = 0; i < 200; i++) {
+			if (!job.status().isActive()) {
+				return;
+			}
+			Thread.sleep(25);
+		}
+		fail("backfill did not finish");
+	}
+}
@@ -0,0 +1,95 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HoldExpiryServiceTest {
+
+	private static final LocalDateTime TEN = LocalDateTime.of(2030, 1, 5, 10, 0);
+
+	private EmbeddedMongo mongo;
+	private AvailabilityEngine availabilityEngine;
+	private HoldExpiryService holdExpiryService;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		availabilityEngine = mock(AvailabilityEngine.class);
+		JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+		when(jobLeaseService.acquire(any(), any())).thenReturn(true);
+		holdExpiryService = new HoldExpiryService(mongo.template(), availabilityEngine,
+				mock(SalonReportRollupService.class), mock(AvailabilityHeatmapService.class), jobLeaseService,
+				Duration.ofMinutes(15), 500, Duration.ofMinutes(2));
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void sweepCancelsOnlyLapsedUnpaidHolds() {
+		LocalDateTime now = LocalDateTime.now();
+		save("lapsed", BookingStatus.PENDING, TEN, now.minusMinutes(1));
+		save("held", BookingStatus.PENDING, TEN.plusHours(1), now.plusMinutes(10));
+		save("confirmed", BookingStatus.CONFIRM, TEN.plusHours(2), now.minusMinutes(1));
+
+		holdExpiryService.sweep();
+
+		Booking lapsed = find("lapsed");
+		assertEquals(BookingStatus.CANCELLED, lapsed.getStatus());
+		assertNull(lapsed.getHoldExpiresAt());
+		// a payment arriving later can tell the hold lapsed rather than the customer cancelling
+		assertNotNull(lapsed.getExpiredAt());
+		assertEquals(BookingStatus.PENDING, find("held").getStatus());
+		assertNull(find("held").getExpiredAt());
+		assertEquals(BookingStatus.CONFIRM, find("confirmed").getStatus());
+		verify(availabilityEngine, times(1)).onStatusChanged(any(), eq(BookingStatus.PENDING));
+	}
+
+	@Test
+	void releaseExpiredOnlyTouchesTheWindow() {
+		LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+		save("inside", BookingStatus.PENDING, TEN, past);
+		save("outside", BookingStatus.PENDING, TEN.plusHours(3), past);
+
+		assertEquals(1, holdExpiryService.releaseExpired("salon", TEN, TEN.plusHours(1)));
+		assertEquals(0, holdExpiryService.releaseExpired("salon", TEN, TEN.plusHours(1)));
+
+		assertEquals(BookingStatus.CANCELLED, find("inside").getStatus());
+		assertNotNull(find("inside").getExpiredAt());
+		assertEquals(BookingStatus.PENDING, find("outside").getStatus());
+	}
+
+	private void save(String id, BookingStatus status, LocalDateTime start, LocalDateTime holdExpiresAt) {
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setSalonId("salon");
+		booking.setStartTime(start);
+		booking.setEndTime(start.plusHours(1));
+		booking.setStatus(status);
+		booking.setHoldExpiresAt(holdExpiresAt);
+		mongo.template().save(booking);
+	}
+
+	private Booking find(String id) {
+		return mongo.template().findById(id, Booking.class);
+	}
+}
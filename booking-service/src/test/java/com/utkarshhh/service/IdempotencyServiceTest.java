@@ -0,0 +1,163 @@
+package com.utkarshhh.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.model.IdempotencyRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdempotencyServiceTest {
+
+	private static final Map<String, String> REQUEST = Map.of("salonId", "salon");
+
+	private EmbeddedMongo mongo;
+	private AtomicInteger runs;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		runs = new AtomicInteger();
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void completedResponseIsReplayedAcrossInstances() {
+		ResponseEntity<?> first = service(Duration.ofSeconds(5)).execute("42", "key", REQUEST, created());
+		// a second instance has nothing cached locally and reads the stored record
+		ResponseEntity<?> second = service(Duration.ofSeconds(5)).execute("42", "key", REQUEST, created());
+
+		assertEquals(1, runs.get());
+		assertEquals(HttpStatus.CREATED, first.getStatusCode());
+		assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+		assertEquals(HttpStatus.CREATED, second.getStatusCode());
+		assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+		assertEquals("booking-1", second.getBody());
+
+		ResponseEntity<?> reused = service(Duration.ofSeconds(5))
+				.execute("42", "key", Map.of("salonId", "other"), created());
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+	}
+
+	@Test
+	void concurrentDuplicatesRunOnce() throws Exception {
+		IdempotencyService local = service(Duration.ofSeconds(5));
+		IdempotencyService remote = service(Duration.ofSeconds(5));
+		Supplier<ResponseEntity<?>> slow = () -> {
+			sleep(300);
+			return created().get();
+		};
+
+		int racers = 6;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(racers);
+		try {
+			List<Future<ResponseEntity<?>>> results = new ArrayList<>();
+			for (int i = 0; i < racers; i++) {
+				IdempotencyService instance = i % 2 == 0 ? local : remote;
+				results.add(pool.submit(() -> {
+					start.await();
+					return instance.execute("42", "key", REQUEST, slow);
+				}));
+			}
+			start.countDown();
+
+			for (Future<ResponseEntity<?>> result : results) {
+				assertEquals(HttpStatus.CREATED, result.get().getStatusCode());
+			}
+			assertEquals(1, runs.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void serverErrorsAreNotStored() {
+		IdempotencyService idempotencyService = service(Duration.ofSeconds(5));
+		ResponseEntity<?> failed = idempotencyService.execute("42", "key", REQUEST, () -> {
+			runs.incrementAndGet();
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("database unavailable");
+		});
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failed.getStatusCode());
+
+		ResponseEntity<?> retried = idempotencyService.execute("42", "key", REQUEST, created());
+
+		assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+		assertEquals(2, runs.get());
+	}
+
+	@Test
+	void staleInProgressRecordIsTakenOver() {
+		IdempotencyRecord abandoned = new IdempotencyRecord();
+		abandoned.setId("42:key");
+		abandoned.setState(IdempotencyRecord.IN_PROGRESS);
+		abandoned.setRequestHash(hash());
+		abandoned.setCreatedAt(LocalDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.MILLIS));
+		mongo.template().insert(abandoned);
+
+		ResponseEntity<?> response = service(Duration.ofSeconds(1)).execute("42", "key", REQUEST, created());
+
+		assertEquals(HttpStatus.CREATED, response.getStatusCode());
+		assertEquals(1, runs.get());
+		IdempotencyRecord stored = mongo.template().findById("42:key", IdempotencyRecord.class);
+		assertEquals(IdempotencyRecord.COMPLETED, stored.getState());
+		assertEquals(201, stored.getHttpStatus());
+	}
+
+	@Test
+	void freshInProgressRecordIsNotTakenOver() {
+		IdempotencyRecord running = new IdempotencyRecord();
+		running.setId("42:key");
+		running.setState(IdempotencyRecord.IN_PROGRESS);
+		running.setRequestHash(hash());
+		running.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+		mongo.template().insert(running);
+
+		ResponseEntity<?> response = service(Duration.ofMillis(300)).execute("42", "key", REQUEST, created());
+
+		assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+		assertEquals(0, runs.get());
+	}
+
+	private IdempotencyService service(Duration waitTimeout) {
+		return new IdempotencyService(mongo.template(), new ObjectMapper(), 100, waitTimeout);
+	}
+
+	private Supplier<ResponseEntity<?>> created() {
+		return () -> ResponseEntity.status(HttpStatus.CREATED).body("booking-" + runs.incrementAndGet());
+	}
+
+	private String hash() {
+		return service(Duration.ofSeconds(1)).hash(REQUEST);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
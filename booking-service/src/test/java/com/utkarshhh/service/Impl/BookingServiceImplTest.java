@@ -0,0 +1,182 @@
+package com.utkarshhh.service.Impl;
+
+import com.utkarshhh.dto.BatchBookingResultDTO;
+import com.utkarshhh.dto.BookingRequest;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.dto.ServiceDTO;
+import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.service.AvailabilityEngine;
+import com.utkarshhh.service.AvailabilityHeatmapService;
+import com.utkarshhh.service.HoldExpiryService;
+import com.utkarshhh.service.SalonReportRollupService;
+import com.utkarshhh.util.OccupancyBitmap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingServiceImplTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+
+	private BookingRepository bookingRepository;
+	private AvailabilityEngine availabilityEngine;
+	private BookingServiceImpl bookingService;
+	private SalonDTO salon;
+	private UserDTO customer;
+	private Map<String, ServiceDTO> services;
+
+	@Captor
+	private ArgumentCaptor<List<Booking>> inserted;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		MockitoAnnotations.openMocks(this);
+		bookingRepository = mock(BookingRepository.class);
+		availabilityEngine = mock(AvailabilityEngine.class);
+		bookingService = new BookingServiceImpl(bookingRepository, availabilityEngine,
+				mock(SalonReportRollupService.class), mock(HoldExpiryService.class),
+				mock(AvailabilityHeatmapService.class));
+		when(bookingRepository.insertAll(anyList())).thenReturn(Map.of());
+		// a single chair: a reservation fails when it overlaps one already made
+		OccupancyBitmap reserved = new OccupancyBitmap(DAY, DAY.plusDays(400));
+		doAnswer(invocation -> {
+			LocalDateTime start = invocation.getArgument(2);
+			LocalDateTime end = invocation.getArgument(3);
+			if (!reserved.isFree(start, end)) {
+				throw new Exception("Slot not available. Please choose a different time.");
+			}
+			reserved.occupy(start, end);
+			return null;
+		}).when(availabilityEngine).reserve(eq("salon"), any(), any(), any());
+		// 10:00-11:00 on the first day is already booked
+		when(availabilityEngine.occupancy(eq("salon"), any(), any())).thenAnswer(invocation -> {
+			OccupancyBitmap occupancy = new OccupancyBitmap(invocation.getArgument(1), invocation.getArgument(2));
+			occupancy.occupy(DAY.plusHours(10), DAY.plusHours(11));
+			return occupancy;
+		});
+
+		salon = new SalonDTO();
+		salon.setId("salon");
+		salon.setOwnerId(7L);
+		salon.setOpenTime(LocalTime.of(9, 0));
+		salon.setCloseTime(LocalTime.of(18, 0));
+
+		customer = new UserDTO();
+		customer.setId("42");
+		customer.setFullName("Customer");
+		customer.setEmail("customer@example.com");
+
+		ServiceDTO cut = new ServiceDTO();
+		cut.setId("cut");
+		cut.setName("Cut");
+		cut.setDuration(60);
+		cut.setPrice(100);
+		services = Map.of("cut", cut);
+	}
+
+	@Test
+	void batchCreatesWhatFitsAndReportsTheRest() {
+		List<BatchBookingResultDTO> results = bookingService.createBookings(salon, customer, List.of(
+				request(DAY.plusHours(10).plusMinutes(30), "cut"),
+				request(DAY.plusHours(12), "cut"),
+				request(DAY.plusHours(12).plusMinutes(30), "cut"),
+				request(DAY.plusHours(14), "missing"),
+				request(DAY.plusHours(20), "cut")), services, null);
+
+		assertEquals("Slot not available. Please choose a different time.", results.get(0).getError());
+		assertTrue(results.get(1).isCreated());
+		assertEquals("Overlaps another booking in this batch", results.get(2).getError());
+		assertEquals("Service not found with ids: missing", results.get(3).getError());
+		assertFalse(results.get(4).isCreated());
+
+		verify(bookingRepository).insertAll(inserted.capture());
+		assertEquals(1, inserted.getValue().size());
+		assertEquals(DAY.plusHours(12), inserted.getValue().get(0).getStartTime());
+	}
+
+	@Test
+	void onlyRowsTheInsertRejectedAreReleasedAndReported() {
+		// the middle row collides on a duplicate key; the unordered insert still writes the others
+		when(bookingRepository.insertAll(anyList())).thenAnswer(invocation -> {
+			List<Booking> bookings = invocation.getArgument(0);
+			return Map.of(bookings.get(1).getId(), "E11000 duplicate key error");
+		});
+
+		List<BatchBookingResultDTO> results = bookingService.createBookings(salon, customer, List.of(
+				request(DAY.plusHours(12), "cut"),
+				request(DAY.plusHours(13), "cut"),
+				request(DAY.plusHours(14), "cut")), services, null);
+
+		assertTrue(results.get(0).isCreated());
+		assertFalse(results.get(1).isCreated());
+		assertEquals("E11000 duplicate key error", results.get(1).getError());
+		assertTrue(results.get(2).isCreated());
+		verify(bookingRepository).insertAll(inserted.capture());
+		String rejected = inserted.getValue().get(1).getId();
+		// the stored rows keep their claims
+		verify(availabilityEngine).release("salon", rejected, DAY.plusHours(13), DAY.plusHours(14));
+		verify(availabilityEngine, times(1)).release(any(), any(), any(), any());
+	}
+
+	@Test
+	void occupancyIsReadOnlyForTheDaysTheBatchTouches() {
+		List<BatchBookingResultDTO> results = bookingService.createBookings(salon, customer, List.of(
+				request(DAY.plusHours(12), "cut"),
+				request(DAY.plusDays(1).plusHours(12), "cut"),
+				request(DAY.plusDays(365).plusHours(12), "cut")), services, null);
+
+		assertTrue(results.stream().allMatch(BatchBookingResultDTO::isCreated));
+		verify(availabilityEngine, times(2)).occupancy(eq("salon"), any(), any());
+		verify(availabilityEngine).occupancy("salon", DAY, DAY.plusDays(2));
+		verify(availabilityEngine).occupancy("salon", DAY.plusDays(365), DAY.plusDays(366));
+	}
+
+	@Test
+	void onlyTheSalonOwnerBooksOnBehalfOfOthers() {
+		BookingRequest onBehalf = request(DAY.plusHours(12), "cut");
+		onBehalf.setCustomerId("99");
+		onBehalf.setCustomerName("Walk-in");
+
+		BatchBookingResultDTO refused = bookingService.createBookings(salon, customer, List.of(onBehalf), services, null)
+				.get(0);
+		assertEquals("Only the salon owner can book on behalf of another customer", refused.getError());
+
+		UserDTO owner = new UserDTO();
+		owner.setId("7");
+		BatchBookingResultDTO created = bookingService.createBookings(salon, owner, List.of(onBehalf), services, null)
+				.get(0);
+		assertNull(created.getError());
+		assertEquals("99", created.getBooking().getCustomerId());
+	}
+
+	private static BookingRequest request(LocalDateTime start, String serviceId) {
+		BookingRequest request = new BookingRequest();
+		request.setSalonId("salon");
+		request.setStartTime(start);
+		request.setServiceIds(Set.of(serviceId));
+		return request;
+	}
+}
@@ -0,0 +1,198 @@
+package com.utkarshhh.service.Impl;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.PaymentStatus;
+import com.utkarshhh.exception.BookingTransitionException;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.repository.BookingRepository;
+import com.utkarshhh.service.AvailabilityEngine;
+import com.utkarshhh.service.AvailabilityHeatmapService;
+import com.utkarshhh.service.HoldExpiryService;
+import com.utkarshhh.service.SalonReportRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingTransitionTest {
+
+	private static final LocalDateTime TEN = LocalDateTime.of(2030, 1, 5, 10, 0);
+
+	private EmbeddedMongo mongo;
+	private BookingRepository bookingRepository;
+	private AvailabilityEngine availabilityEngine;
+	private HoldExpiryService holdExpiryService;
+	private BookingServiceImpl bookingService;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		bookingRepository = mongo.bookingRepository();
+		availabilityEngine = mock(AvailabilityEngine.class);
+		holdExpiryService = mock(HoldExpiryService.class);
+		bookingService = new BookingServiceImpl(bookingRepository, availabilityEngine,
+				mock(SalonReportRollupService.class), holdExpiryService,
+				mock(AvailabilityHeatmapService.class));
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void paymentResultsRaceToOneOutcome() throws Exception {
+		save("b1", BookingStatus.PENDING, PaymentStatus.PENDING);
+
+		int racers = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(racers);
+		try {
+			List<Future<PaymentStatus>> results = new ArrayList<>();
+			for (int i = 0; i < racers; i++) {
+				PaymentStatus result = i % 2 == 0 ? PaymentStatus.PAID : PaymentStatus.FAILED;
+				Callable<PaymentStatus> update = () -> {
+					start.await();
+					try {
+						bookingService.updatePaymentStatus("b1", result);
+						return result;
+					} catch (BookingTransitionException e) {
+						return null;
+					}
+				};
+				results.add(pool.submit(update));
+			}
+			start.countDown();
+			List<PaymentStatus> applied = new ArrayList<>();
+			for (Future<PaymentStatus> result : results) {
+				applied.add(result.get());
+			}
+
+			Booking booking = bookingRepository.findById("b1").orElseThrow();
+			assertEquals(booking.getPaymentStatus() == PaymentStatus.PAID
+					? BookingStatus.CONFIRM : BookingStatus.CANCELLED, booking.getStatus());
+			for (PaymentStatus result : applied) {
+				// the losing result is refused; repeats of the winning one are accepted
+				assertEquals(result == null ? null : booking.getPaymentStatus(), result);
+			}
+			verify(availabilityEngine, times(1)).onStatusChanged(any(), any());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void settledPaymentIsNotOverwritten() throws Exception {
+		save("b1", BookingStatus.PENDING, PaymentStatus.PENDING);
+		bookingService.updatePaymentStatus("b1", PaymentStatus.PAID);
+
+		BookingTransitionException e = assertThrows(BookingTransitionException.class,
+				() -> bookingService.updatePaymentStatus("b1", PaymentStatus.FAILED));
+		assertEquals(PaymentStatus.PAID, e.getCurrentPaymentStatus());
+		assertThrows(BookingTransitionException.class,
+				() -> bookingService.updatePaymentStatus("b1", PaymentStatus.PENDING));
+
+		Booking booking = bookingRepository.findById("b1").orElseThrow();
+		assertEquals(BookingStatus.CONFIRM, booking.getStatus());
+		assertEquals(PaymentStatus.PAID, booking.getPaymentStatus());
+
+		// a redelivered success changes nothing and is not an error
+		assertEquals(BookingStatus.CONFIRM, bookingService.updatePaymentStatus("b1", PaymentStatus.PAID).getStatus());
+		verify(availabilityEngine, times(1)).onStatusChanged(any(), any());
+	}
+
+	@Test
+	void paymentOfACancelledBookingIsRefused() {
+		save("b1", BookingStatus.PENDING, PaymentStatus.PENDING);
+		bookingService.updateBookingStatus("b1", BookingStatus.CANCELLED);
+
+		assertThrows(BookingTransitionException.class,
+				() -> bookingService.updatePaymentStatus("b1", PaymentStatus.FAILED));
+		assertThrows(BookingTransitionException.class,
+				() -> bookingService.updateBooking("b1", BookingStatus.CONFIRM));
+		assertEquals(PaymentStatus.PENDING, bookingRepository.findById("b1").orElseThrow().getPaymentStatus());
+	}
+
+	@Test
+	void paymentAfterHoldExpiryReclaimsAFreeSlot() throws Exception {
+		saveExpired("b1");
+
+		Booking booking = bookingService.updatePaymentStatus("b1", PaymentStatus.PAID);
+
+		assertEquals(BookingStatus.CONFIRM, booking.getStatus());
+		Booking stored = bookingRepository.findById("b1").orElseThrow();
+		assertEquals(BookingStatus.CONFIRM, stored.getStatus());
+		assertEquals(PaymentStatus.PAID, stored.getPaymentStatus());
+		verify(availabilityEngine).reserve("salon", "b1", TEN, TEN.plusHours(1));
+		verify(availabilityEngine).onStatusChanged(any(), eq(BookingStatus.CANCELLED));
+	}
+
+	@Test
+	void paymentAfterHoldExpiryOfATakenSlotIsFlaggedForRefund() throws Exception {
+		saveExpired("b1");
+		doThrow(new Exception("Slot not available")).when(availabilityEngine)
+				.reserve("salon", "b1", TEN, TEN.plusHours(1));
+
+		assertEquals(PaymentStatus.REFUND_DUE, bookingService.updatePaymentStatus("b1", PaymentStatus.PAID)
+				.getPaymentStatus());
+		// the payment service retries until it is answered; the repeat must not fail
+		assertEquals(PaymentStatus.REFUND_DUE, bookingService.updatePaymentStatus("b1", PaymentStatus.PAID)
+				.getPaymentStatus());
+
+		Booking stored = bookingRepository.findById("b1").orElseThrow();
+		assertEquals(BookingStatus.CANCELLED, stored.getStatus());
+		assertEquals(PaymentStatus.REFUND_DUE, stored.getPaymentStatus());
+		verify(availabilityEngine, times(1)).reserve(any(), any(), any(), any());
+		verify(holdExpiryService).releaseExpired("salon", TEN, TEN.plusHours(1));
+		verify(availabilityEngine, never()).onStatusChanged(any(), any());
+	}
+
+	@Test
+	void paymentAfterHoldExpiryRetriesOnceLapsedHoldsAreReleased() throws Exception {
+		saveExpired("b1");
+		doThrow(new Exception("Slot not available")).doNothing().when(availabilityEngine)
+				.reserve("salon", "b1", TEN, TEN.plusHours(1));
+		when(holdExpiryService.releaseExpired("salon", TEN, TEN.plusHours(1))).thenReturn(1);
+
+		assertEquals(BookingStatus.CONFIRM, bookingService.updatePaymentStatus("b1", PaymentStatus.PAID).getStatus());
+		verify(availabilityEngine, times(2)).reserve(any(), any(), any(), any());
+	}
+
+	private void saveExpired(String id) {
+		save(id, BookingStatus.CANCELLED, PaymentStatus.PENDING);
+		Booking booking = bookingRepository.findById(id).orElseThrow();
+		booking.setExpiredAt(LocalDateTime.now());
+		bookingRepository.save(booking);
+	}
+
+	private void save(String id, BookingStatus status, PaymentStatus paymentStatus) {
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setSalonId("salon");
+		booking.setStartTime(TEN);
+		booking.setEndTime(TEN.plusHours(1));
+		booking.setStatus(status);
+		booking.setPaymentStatus(paymentStatus);
+		bookingRepository.save(booking);
+	}
+}
@@ -0,0 +1,152 @@
+package com.utkarshhh.service.Impl;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.dto.BatchBookingResultDTO;
+import com.utkarshhh.dto.BookingRequest;
+import com.utkarshhh.dto.SalonDTO;
+import com.utkarshhh.dto.ServiceDTO;
+import com.utkarshhh.dto.UserDTO;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.SeatClaim;
+import com.utkarshhh.model.SlotClaim;
+import com.utkarshhh.service.AvailabilityHeatmapService;
+import com.utkarshhh.service.BookingIntervalIndex;
+import com.utkarshhh.service.HoldExpiryService;
+import com.utkarshhh.service.SalonReportRollupService;
+import com.utkarshhh.service.SalonService;
+import com.utkarshhh.service.SeatClaimService;
+import com.utkarshhh.service.SlotClaimService;
+import com.utkarshhh.util.SlotGranules;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CapacityAvailabilityEngineTest {
+
+	private static final LocalDateTime TEN = LocalDateTime.of(2030, 1, 5, 10, 0);
+
+	private EmbeddedMongo mongo;
+	private SalonService salonService;
+	private CapacityAvailabilityEngine engine;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		salonService = mock(SalonService.class);
+		engine = new CapacityAvailabilityEngine(
+				new BookingIntervalIndex(mongo.bookingRepository(), Duration.ofMinutes(5), 1_000),
+				new SlotClaimService(mongo.template()), new SeatClaimService(mongo.template()), salonService);
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void singleChairSalonTakesOneSeat() throws Exception {
+		salon(null);
+
+		engine.reserve("salon", "b1", TEN, TEN.plusHours(1));
+
+		assertTrue(mongo.template().findAll(SlotClaim.class).isEmpty());
+		assertEquals(Set.of(0), mongo.template().findAll(SeatClaim.class).stream()
+				.map(SeatClaim::getSeat).collect(Collectors.toSet()));
+		assertThrows(Exception.class, () -> engine.reserve("salon", "b2", TEN, TEN.plusHours(1)));
+	}
+
+	@Test
+	void slotClaimsFromTheIndexEngineCountAsTakenSeats() throws Exception {
+		salon(2);
+		// a booking made before the engine was switched, held on another replica
+		SlotGranules.covering(TEN, TEN.plusHours(1)).forEach(granule -> mongo.template()
+				.save(new SlotClaim("salon", granule, "earlier", LocalDateTime.now())));
+
+		engine.reserve("salon", "b1", TEN, TEN.plusHours(1));
+		assertThrows(Exception.class, () -> engine.reserve("salon", "b2", TEN, TEN.plusHours(1)));
+
+		engine.release("salon", "b1", TEN, TEN.plusHours(1));
+		engine.reserve("salon", "b2", TEN, TEN.plusHours(1));
+	}
+
+	@Test
+	void completedBookingGivesUpItsSeats() throws Exception {
+		salon(1);
+		engine.reserve("salon", "b1", TEN, TEN.plusHours(1));
+
+		Booking booking = new Booking();
+		booking.setId("b1");
+		booking.setSalonId("salon");
+		booking.setStartTime(TEN);
+		booking.setEndTime(TEN.plusHours(1));
+		booking.setStatus(BookingStatus.COMPLETED);
+		engine.onStatusChanged(booking, BookingStatus.CONFIRM);
+
+		assertTrue(mongo.template().findAll(SeatClaim.class).isEmpty());
+	}
+
+	@Test
+	void unknownSalonIsNotBooked() throws Exception {
+		when(salonService.getSalonById("salon")).thenReturn(null);
+
+		assertThrows(IllegalStateException.class, () -> engine.reserve("salon", "b1", TEN, TEN.plusHours(1)));
+		assertThrows(IllegalStateException.class, () -> engine.isFree("salon", TEN, TEN.plusHours(1)));
+		assertTrue(mongo.template().findAll(SlotClaim.class).isEmpty());
+		assertTrue(mongo.template().findAll(SeatClaim.class).isEmpty());
+	}
+
+	@Test
+	void batchFillsEveryChairBeforeRefusing() throws Exception {
+		SalonDTO salon = salon(3);
+		salon.setOpenTime(LocalTime.of(9, 0));
+		salon.setCloseTime(LocalTime.of(18, 0));
+		UserDTO customer = new UserDTO();
+		customer.setId("42");
+		ServiceDTO cut = new ServiceDTO();
+		cut.setId("cut");
+		cut.setDuration(60);
+		BookingServiceImpl bookingService = new BookingServiceImpl(mongo.bookingRepository(), engine,
+				mock(SalonReportRollupService.class), mock(HoldExpiryService.class),
+				mock(AvailabilityHeatmapService.class));
+
+		List<BatchBookingResultDTO> results = bookingService.createBookings(salon, customer,
+				List.of(request(TEN), request(TEN), request(TEN.plusMinutes(30)), request(TEN)),
+				Map.of("cut", cut), null);
+
+		assertTrue(results.get(0).isCreated());
+		assertTrue(results.get(1).isCreated());
+		assertTrue(results.get(2).isCreated());
+		assertEquals("Overlaps another booking in this batch", results.get(3).getError());
+	}
+
+	private static BookingRequest request(LocalDateTime start) {
+		BookingRequest request = new BookingRequest();
+		request.setSalonId("salon");
+		request.setStartTime(start);
+		request.setServiceIds(Set.of("cut"));
+		return request;
+	}
+
+	private SalonDTO salon(Integer chairs) throws Exception {
+		SalonDTO salon = new SalonDTO();
+		salon.setId("salon");
+		salon.setChairCount(chairs);
+		when(salonService.getSalonById("salon")).thenReturn(salon);
+		return salon;
+	}
+}
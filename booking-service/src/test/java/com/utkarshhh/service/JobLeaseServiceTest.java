@@ -0,0 +1,65 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.model.JobLease;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobLeaseServiceTest {
+
+	private static final Duration LEASE = Duration.ofSeconds(30);
+
+	private EmbeddedMongo mongo;
+	private JobLeaseService first;
+	private JobLeaseService second;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		first = new JobLeaseService(mongo.template());
+		second = new JobLeaseService(mongo.template());
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void onlyOneInstanceHoldsTheLease() {
+		assertTrue(first.acquire("job", LEASE));
+		assertFalse(second.acquire("job", LEASE));
+		assertTrue(first.acquire("job", LEASE));
+		assertTrue(first.renew("job", LEASE));
+		assertFalse(second.renew("job", LEASE));
+	}
+
+	@Test
+	void renewalFailsOnceALapsedLeaseIsTakenOver() {
+		assertTrue(first.acquire("job", LEASE));
+		mongo.template().updateFirst(Query.query(Criteria.where("_id").is("job")),
+				new Update().set("leaseUntil", LocalDateTime.now().minusSeconds(1)), JobLease.class);
+
+		assertTrue(second.acquire("job", LEASE));
+		assertFalse(first.renew("job", LEASE));
+		assertFalse(first.acquire("job", LEASE));
+	}
+
+	@Test
+	void releasedLeaseCanBeTakenAtOnce() {
+		assertTrue(first.acquire("job", LEASE));
+		first.release("job");
+
+		assertTrue(second.acquire("job", LEASE));
+	}
+}
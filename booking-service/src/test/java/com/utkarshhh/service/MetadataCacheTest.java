@@ -0,0 +1,70 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.dto.ServiceDTO;
+import com.utkarshhh.model.ServiceOffering;
+import com.utkarshhh.repository.ServiceOfferingRepository;
+import com.utkarshhh.service.Impl.ServiceOfferingServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetadataCacheTest {
+
+	private MetadataCache metadataCache;
+
+	@BeforeEach
+	void setUp() {
+		metadataCache = new MetadataCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void putFromBeforeAnInvalidationIsDropped() {
+		long generation = metadataCache.serviceGeneration();
+		metadataCache.invalidateService("other");
+
+		metadataCache.putService(service("s1", 100), generation);
+
+		assertNull(metadataCache.getService("s1"));
+
+		metadataCache.putService(service("s1", 100), metadataCache.serviceGeneration());
+		assertEquals(100, metadataCache.getService("s1").getPrice());
+	}
+
+	@Test
+	void lookupRacingAnEditDoesNotCacheTheOldPrice() throws Exception {
+		ServiceOfferingRepository repository = mock(ServiceOfferingRepository.class);
+		ServiceOfferingServiceImpl serviceOfferingService =
+				new ServiceOfferingServiceImpl(repository, mock(MongoTemplate.class), metadataCache);
+		// the edit and its change event land while the old document is on its way back
+		when(repository.findById("s1")).thenAnswer(invocation -> {
+			metadataCache.invalidateService("s1");
+			return Optional.of(offering("s1", 100));
+		});
+
+		assertEquals(100, serviceOfferingService.getServiceById("s1").getPrice());
+		assertNull(metadataCache.getService("s1"));
+	}
+
+	private static ServiceDTO service(String id, int price) {
+		ServiceDTO service = new ServiceDTO();
+		service.setId(id);
+		service.setPrice(price);
+		return service;
+	}
+
+	private static ServiceOffering offering(String id, int price) {
+		ServiceOffering offering = new ServiceOffering();
+		offering.setId(id);
+		offering.setPrice(price);
+		return offering;
+	}
+}
@@ -0,0 +1,103 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.OutboxState;
+import com.utkarshhh.messaging.ConfirmedPublisher;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.OutboxMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+	private EmbeddedMongo mongo;
+	private ConfirmedPublisher confirmedPublisher;
+	private OutboxRelay outboxRelay;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		confirmedPublisher = mock(ConfirmedPublisher.class);
+		outboxRelay = new OutboxRelay(mongo.template(), confirmedPublisher, new JobLeaseService(mongo.template()),
+				100, Duration.ofMillis(200), Duration.ofSeconds(30));
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void confirmedEntriesAreSentAndTheRestBackOff() {
+		save("acked", "booking.acked");
+		save("nacked", "booking.nacked");
+		save("unconfirmed", "booking.unconfirmed");
+		when(confirmedPublisher.publish(any(), eq("booking.acked"), any()))
+				.thenReturn(CompletableFuture.completedFuture(true));
+		when(confirmedPublisher.publish(any(), eq("booking.nacked"), any()))
+				.thenReturn(CompletableFuture.completedFuture(false));
+		when(confirmedPublisher.publish(any(), eq("booking.unconfirmed"), any()))
+				.thenReturn(new CompletableFuture<>());
+
+		LocalDateTime before = LocalDateTime.now();
+		outboxRelay.flush();
+
+		OutboxMessage acked = outbox("acked");
+		assertEquals(OutboxState.SENT, acked.getState());
+		assertNotNull(acked.getSentAt());
+		for (String id : new String[]{"nacked", "unconfirmed"}) {
+			OutboxMessage retried = outbox(id);
+			assertEquals(OutboxState.PENDING, retried.getState());
+			assertEquals(1, retried.getAttempts());
+			assertNull(retried.getSentAt());
+			assertTrue(retried.getNextAttemptAt().isAfter(before.plusSeconds(1)));
+		}
+	}
+
+	@Test
+	void entriesInBackoffAreNotRetriedEarly() {
+		save("waiting", "booking.waiting");
+		Booking booking = mongo.template().findById("waiting", Booking.class);
+		booking.getOutbox().setAttempts(3);
+		booking.getOutbox().setNextAttemptAt(LocalDateTime.now().plusMinutes(1));
+		mongo.template().save(booking);
+
+		outboxRelay.flush();
+
+		verify(confirmedPublisher, never()).publish(any(), any(), any());
+		assertEquals(3, outbox("waiting").getAttempts());
+	}
+
+	private void save(String id, String routingKey) {
+		OutboxMessage outbox = new OutboxMessage();
+		outbox.setExchange("booking");
+		outbox.setRoutingKey(routingKey);
+		outbox.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setSalonId("salon");
+		booking.setOutbox(outbox);
+		mongo.template().save(booking);
+	}
+
+	private OutboxMessage outbox(String id) {
+		return mongo.template().findById(id, Booking.class).getOutbox();
+	}
+}
@@ -0,0 +1,151 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.domain.JobStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.MigrationCheckpoint;
+import com.utkarshhh.model.SalonReport;
+import com.utkarshhh.model.SalonReportDaily;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+class SalonReportRollupServiceTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 5, 10, 0);
+
+	private EmbeddedMongo mongo;
+	private SalonReportRollupService rollups;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		rollups = new SalonReportRollupService(mongo.template());
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void incrementsFollowCreatesAndStatusChanges() {
+		markSeeded();
+		Booking kept = save("kept", DAY, BookingStatus.CONFIRM, 100);
+		Booking cancelled = save("cancelled", DAY.plusHours(2), BookingStatus.CONFIRM, 40);
+		rollups.onBookingCreated(kept);
+		rollups.onBookingCreated(cancelled);
+		cancelled.setStatus(BookingStatus.CANCELLED);
+		rollups.onStatusChanged(cancelled, BookingStatus.CONFIRM);
+
+		assertReport(rollups.getReport("salon", null, null), 2, 100, 1, 40);
+		assertReport(rollups.getReport("salon", DAY.toLocalDate().plusDays(1), null), 0, 0, 0, 0);
+	}
+
+	@Test
+	void salonsNotSeededYetAreReportedFromTheirBookings() {
+		save("a", DAY, BookingStatus.CONFIRM, 100);
+		save("b", DAY.plusDays(1), BookingStatus.CANCELLED, 30);
+
+		assertReport(rollups.getReport("salon", null, null), 2, 100, 1, 30);
+		assertReport(rollups.getReport("salon", DAY.toLocalDate().plusDays(1), null), 1, 0, 1, 30);
+	}
+
+	@Test
+	void seedJobBuildsTheRollupsOfExistingSalons() throws InterruptedException {
+		save("a", DAY, BookingStatus.CONFIRM, 100);
+		save("b", DAY.plusDays(1), BookingStatus.CANCELLED, 30);
+		SalonReportSeedJob seedJob = new SalonReportSeedJob(mongo.template(), rollups,
+				new JobLeaseService(mongo.template()), Duration.ofSeconds(30));
+
+		seedJob.seed();
+
+		MigrationCheckpoint checkpoint = mongo.template().findById(SalonReportSeedJob.JOB_ID, MigrationCheckpoint.class);
+		assertEquals(JobStatus.COMPLETED, checkpoint.getStatus());
+		assertEquals("salon", checkpoint.getLastSalonId());
+		assertEquals(2, mongo.template().count(new Query(),
+				SalonReportDaily.class));
+		assertReport(rollups.getReport("salon", null, null), 2, 100, 1, 30);
+	}
+
+	@Test
+	void rebuildKeepsAnIncrementThatLandsWhileItCounts() {
+		markSeeded();
+		rollups.onBookingCreated(save("a", DAY, BookingStatus.CONFIRM, 100));
+
+		MongoTemplate racing = spy(mongo.template());
+		SalonReportRollupService rebuilding = new SalonReportRollupService(racing);
+		AtomicBoolean raced = new AtomicBoolean();
+		doAnswer(invocation -> {
+			Object counted = invocation.callRealMethod();
+			if (raced.compareAndSet(false, true)) {
+				// a booking created after the recount read the day, before it is written back
+				rollups.onBookingCreated(save("b", DAY.plusHours(1), BookingStatus.CONFIRM, 50));
+			}
+			return counted;
+		}).when(racing).aggregate(any(Aggregation.class), eq("booking"), eq(Document.class));
+
+		rebuilding.rebuild("salon");
+
+		assertReport(rollups.getReport("salon", null, null), 2, 150, 0, 0);
+	}
+
+	@Test
+	void rebuildCorrectsDriftAndDropsEmptyDays() {
+		markSeeded();
+		rollups.onBookingCreated(save("a", DAY, BookingStatus.CONFIRM, 100));
+		Booking lost = new Booking();
+		lost.setSalonId("salon");
+		lost.setStartTime(DAY.plusDays(3));
+		lost.setStatus(BookingStatus.CONFIRM);
+		lost.setTotalPrice(999);
+		rollups.onBookingCreated(lost);
+
+		assertEquals(1, rollups.rebuild("salon"));
+
+		assertReport(rollups.getReport("salon", null, null), 1, 100, 0, 0);
+		assertEquals(1, mongo.template().count(new Query(),
+				SalonReportDaily.class));
+	}
+
+	private void markSeeded() {
+		MigrationCheckpoint checkpoint = new MigrationCheckpoint();
+		checkpoint.setId(SalonReportSeedJob.JOB_ID);
+		checkpoint.setStatus(JobStatus.COMPLETED);
+		mongo.template().save(checkpoint);
+	}
+
+	private Booking save(String id, LocalDateTime start, BookingStatus status, int price) {
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setSalonId("salon");
+		booking.setStartTime(start);
+		booking.setEndTime(start.plusMinutes(30));
+		booking.setStatus(status);
+		booking.setTotalPrice(price);
+		return mongo.template().save(booking);
+	}
+
+	private static void assertReport(SalonReport report, int bookings, long earnings, int cancelled, long refund) {
+		assertEquals(bookings, report.getTotalBooking());
+		assertEquals(earnings, report.getTotalEarnings());
+		assertEquals(cancelled, report.getCancelledBooking());
+		assertEquals(refund, report.getTotalRefund());
+	}
+}
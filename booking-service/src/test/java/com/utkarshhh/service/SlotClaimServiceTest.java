@@ -0,0 +1,130 @@
+package com.utkarshhh.service;
+
+import com.utkarshhh.EmbeddedMongo;
+import com.utkarshhh.domain.BookingStatus;
+import com.utkarshhh.model.Booking;
+import com.utkarshhh.model.SlotClaim;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SlotClaimServiceTest {
+
+	private static final LocalDateTime TEN = LocalDateTime.of(2030, 1, 5, 10, 0);
+
+	private EmbeddedMongo mongo;
+	private SlotClaimService slotClaimService;
+
+	@BeforeEach
+	void setUp() {
+		mongo = EmbeddedMongo.start();
+		slotClaimService = new SlotClaimService(mongo.template());
+	}
+
+	@AfterEach
+	void tearDown() {
+		mongo.close();
+	}
+
+	@Test
+	void losingClaimRollsBackItsPartialGranules() throws Exception {
+		slotClaimService.claim("salon", "first", TEN, TEN.plusHours(1));
+
+		Exception e = assertThrows(Exception.class,
+				() -> slotClaimService.claim("salon", "second", TEN.plusMinutes(30), TEN.plusMinutes(90)));
+
+		assertEquals("Slot not available. Please choose a different time.", e.getMessage());
+		assertEquals(0, claimsOf("second"));
+		assertEquals(12, claimsOf("first"));
+		slotClaimService.claim("salon", "third", TEN.plusHours(1), TEN.plusMinutes(90));
+	}
+
+	@Test
+	void racingClaimsOnTheSameGranuleLeaveOneWinner() throws Exception {
+		int racers = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(racers);
+		List<Future<Boolean>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < racers; i++) {
+				String bookingId = "booking-" + i;
+				// every racer covers 10:30, each with a different tail so partial inserts happen
+				LocalDateTime from = TEN.plusMinutes(5L * i);
+				Callable<Boolean> claim = () -> {
+					start.await();
+					try {
+						slotClaimService.claim("salon", bookingId, from, TEN.plusMinutes(45));
+						return true;
+					} catch (Exception e) {
+						return false;
+					}
+				};
+				results.add(pool.submit(claim));
+			}
+			start.countDown();
+
+			int winners = 0;
+			for (int i = 0; i < racers; i++) {
+				if (results.get(i).get()) {
+					winners++;
+				} else {
+					assertEquals(0, claimsOf("booking-" + i));
+				}
+			}
+			assertEquals(1, winners);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void finishedBookingsGiveUpTheirClaims() throws Exception {
+		slotClaimService.claim("salon", "completed", TEN, TEN.plusHours(1));
+		slotClaimService.claim("salon", "cancelled", TEN.plusHours(1), TEN.plusHours(2));
+		slotClaimService.claim("salon", "confirmed", TEN.plusHours(2), TEN.plusHours(3));
+
+		slotClaimService.onStatusChanged(booking("completed", BookingStatus.COMPLETED), BookingStatus.CONFIRM);
+		slotClaimService.onStatusChanged(booking("cancelled", BookingStatus.CANCELLED), BookingStatus.CONFIRM);
+		slotClaimService.onStatusChanged(booking("confirmed", BookingStatus.CONFIRM), BookingStatus.PENDING);
+
+		assertEquals(0, claimsOf("completed"));
+		assertEquals(0, claimsOf("cancelled"));
+		assertEquals(12, claimsOf("confirmed"));
+	}
+
+	@Test
+	void pastGranulesExpireThroughATtlIndex() {
+		IndexInfo ttl = mongo.template().indexOps(SlotClaim.class).getIndexInfo().stream()
+				.filter(index -> index.getName().equals("granule_ttl"))
+				.findFirst()
+				.orElseThrow();
+		assertEquals(Duration.ofDays(1), ttl.getExpireAfter().orElseThrow());
+	}
+
+	private static Booking booking(String id, BookingStatus status) {
+		Booking booking = new Booking();
+		booking.setId(id);
+		booking.setStatus(status);
+		return booking;
+	}
+
+	private long claimsOf(String bookingId) {
+		return mongo.template().count(Query.query(Criteria.where("bookingId").is(bookingId)), SlotClaim.class);
+	}
+}
@@ -0,0 +1,58 @@
+package com.utkarshhh.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CapacitySweepTest {
+
+	@Test
+	void admitsOverlapsUpToTheChairCount() {
+		CapacitySweep sweep = new CapacitySweep(2, false);
+		sweep.addBooking(0, 60);
+		sweep.addBooking(30, 90);
+
+		assertTrue(sweep.fits(0, 30));
+		assertFalse(sweep.fits(20, 40));
+		assertFalse(sweep.fits(59, 61));
+		assertTrue(sweep.fits(60, 120));
+		assertTrue(sweep.fits(90, 100));
+	}
+
+	@Test
+	void stylistShiftsCapTheChairs() {
+		CapacitySweep sweep = new CapacitySweep(3, true);
+		sweep.addShift(0, 100);
+		sweep.addShift(50, 150);
+		sweep.addBooking(60, 80);
+
+		assertTrue(sweep.fits(0, 50));
+		assertTrue(sweep.fits(60, 80));
+		assertFalse(sweep.fits(140, 160));
+
+		sweep.addBooking(10, 20);
+		assertFalse(sweep.fits(15, 16));
+	}
+
+	@Test
+	void reportsMergedFullStretches() {
+		CapacitySweep sweep = new CapacitySweep(1, false);
+		sweep.addBooking(10, 20);
+		sweep.addBooking(20, 30);
+		sweep.addBooking(50, 70);
+
+		List<long[]> full = new ArrayList<>();
+		sweep.forEachFull(0, 60, (start, end) -> full.add(new long[]{start, end}));
+
+		assertEquals(2, full.size());
+		assertEquals(10, full.get(0)[0]);
+		assertEquals(30, full.get(0)[1]);
+		assertEquals(50, full.get(1)[0]);
+		assertEquals(60, full.get(1)[1]);
+	}
+}
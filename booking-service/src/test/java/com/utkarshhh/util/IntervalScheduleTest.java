@@ -0,0 +1,97 @@
+package com.utkarshhh.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalScheduleTest {
+
+	@Test
+	void detectsOverlapAgainstEarlierLongInterval() {
+		IntervalSchedule schedule = new IntervalSchedule();
+		schedule.add("long", 0, 100);
+		schedule.add("short", 10, 20);
+		schedule.add("late", 200, 210);
+
+		assertTrue(schedule.overlaps(50, 60));
+		assertTrue(schedule.overlaps(205, 206));
+		assertFalse(schedule.overlaps(100, 200));
+		assertFalse(schedule.overlaps(210, 300));
+	}
+
+	@Test
+	void addIfFreeRejectsCollisionsAndRemoveFreesTheWindow() {
+		IntervalSchedule schedule = new IntervalSchedule();
+		assertTrue(schedule.addIfFree("a", 0, 30));
+		assertFalse(schedule.addIfFree("b", 15, 45));
+		assertTrue(schedule.addIfFree("c", 30, 60));
+
+		assertTrue(schedule.remove("a"));
+		assertFalse(schedule.overlaps(0, 30));
+		assertTrue(schedule.overlaps(29, 31));
+		assertEquals(1, schedule.size());
+	}
+
+	@Test
+	void probesFollowTheLongestIntervalAsItChanges() {
+		IntervalSchedule schedule = new IntervalSchedule();
+		schedule.add("long", 0, 1000);
+		schedule.add("a", 100, 110);
+		schedule.add("b", 100, 120);
+
+		assertTrue(schedule.overlaps(900, 950));
+		schedule.remove("long");
+		assertFalse(schedule.overlaps(900, 950));
+		assertTrue(schedule.overlaps(115, 116));
+		schedule.add("b", 500, 510);
+		assertFalse(schedule.overlaps(115, 116));
+
+		List<String> seen = new ArrayList<>();
+		schedule.forEachOverlapping(0, 600, (id, start, end) -> seen.add(id));
+		assertEquals(List.of("a", "b"), seen);
+	}
+
+	@Test
+	void matchesALinearScan() {
+		Random random = new Random(7);
+		IntervalSchedule schedule = new IntervalSchedule();
+		Map<String, long[]> intervals = new HashMap<>();
+		for (int i = 0; i < 2000; i++) {
+			String id = "b" + random.nextInt(100);
+			if (random.nextInt(4) == 0) {
+				schedule.remove(id);
+				intervals.remove(id);
+			} else {
+				long start = random.nextInt(10_000);
+				long end = start + 1 + random.nextInt(random.nextInt(10) == 0 ? 3000 : 100);
+				schedule.add(id, start, end);
+				intervals.put(id, new long[]{start, end});
+			}
+
+			long start = random.nextInt(10_000);
+			long end = start + 1 + random.nextInt(200);
+			boolean expected = intervals.values().stream().anyMatch(v -> v[0] < end && v[1] > start);
+			assertEquals(expected, schedule.overlaps(start, end));
+		}
+		assertEquals(intervals.size(), schedule.size());
+	}
+
+	@Test
+	void holdsManyAdjacentIntervals() {
+		IntervalSchedule schedule = new IntervalSchedule();
+		for (int i = 0; i < 50; i++) {
+			assertTrue(schedule.addIfFree("b" + i, i * 10L, i * 10L + 10));
+		}
+		assertEquals(50, schedule.size());
+		assertTrue(schedule.overlaps(495, 496));
+		assertFalse(schedule.overlaps(500, 510));
+	}
+}
@@ -0,0 +1,50 @@
+package com.utkarshhh.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OccupancyBitmapTest {
+
+	@Test
+	void freeStartsSkipOccupiedGranulesAcrossMidnight() {
+		LocalDateTime open = LocalDateTime.of(2024, 5, 4, 22, 0);
+		OccupancyBitmap bitmap = new OccupancyBitmap(open, open.plusHours(3));
+		bitmap.occupy(open.plusMinutes(20), open.plusMinutes(100));
+
+		List<LocalDateTime> starts = bitmap.freeStarts(20, null);
+
+		assertEquals(36, bitmap.size());
+		assertEquals(open, starts.get(0));
+		assertEquals(open.plusMinutes(100), starts.get(1));
+		assertEquals(open.plusMinutes(160), starts.get(starts.size() - 1));
+		assertEquals(14, starts.size());
+	}
+
+	@Test
+	void unalignedBookingsBlockEveryGranuleTheyTouch() {
+		LocalDateTime open = LocalDateTime.of(2024, 5, 4, 9, 0);
+		OccupancyBitmap bitmap = new OccupancyBitmap(open, open.plusHours(1));
+		bitmap.occupy(open.plusMinutes(7), open.plusMinutes(13));
+
+		assertEquals(open.plusMinutes(15), bitmap.freeStarts(10, null).get(0));
+		assertEquals(open, bitmap.freeStarts(5, null).get(0));
+	}
+
+	@Test
+	void isFreeChecksEveryTouchedGranule() {
+		LocalDateTime open = LocalDateTime.of(2024, 5, 4, 9, 0);
+		OccupancyBitmap bitmap = new OccupancyBitmap(open, open.plusHours(1));
+		bitmap.occupy(open.plusMinutes(20), open.plusMinutes(30));
+
+		assertTrue(bitmap.isFree(open, open.plusMinutes(20)));
+		assertTrue(bitmap.isFree(open.plusMinutes(30), open.plusMinutes(45)));
+		assertFalse(bitmap.isFree(open.plusMinutes(12), open.plusMinutes(22)));
+		assertFalse(bitmap.isFree(open.plusMinutes(29), open.plusMinutes(29)));
+	}
+}
@@ -1,11 +1,18 @@
 package com.utkarshhh.config;
 
+import com.utkarshhh.messaging.ConfirmedPublisher;
+import com.utkarshhh.messaging.OverflowPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
 
 @Configuration
 public class RabbitMQConfig {
@@ -24,4 +31,17 @@ public class RabbitMQConfig {
         template.setMessageConverter(messageConverter());
         return template;
     }
+
+    @Bean
+    public ConfirmedPublisher confirmedPublisher(RabbitTemplate rabbitTemplate,
+                                                 MongoTemplate mongoTemplate,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${payment.publisher.capacity:10000}") int capacity,
+                                                 @Value("${payment.publisher.batch-size:100}") int batchSize,
+                                                 @Value("${payment.publisher.overflow:SPILL}") OverflowPolicy overflowPolicy,
+                                                 @Value("${payment.publisher.block-timeout:5s}") Duration blockTimeout,
+                                                 @Value("${payment.publisher.confirm-timeout:5s}") Duration confirmTimeout) {
+        return new ConfirmedPublisher(rabbitTemplate, mongoTemplate, meterRegistry, "payment_amqp_spill",
+                capacity, batchSize, overflowPolicy, blockTimeout, confirmTimeout);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,12 @@
 package com.utkarshhh.mapper;
 
 import com.utkarshhh.modal.Salon;
+import com.utkarshhh.modal.StylistHours;
 import com.utkarshhh.payload.dto.SalonDTO;
+import com.utkarshhh.payload.dto.StylistHoursDTO;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class SalonMapper {
 
@@ -18,7 +23,33 @@ public class SalonMapper {
         salonDTO.setPhoneNumber(salon.getPhoneNumber());
         salonDTO.setOwnerId(salon.getOwnerId());
         salonDTO.setEmail(salon.getEmail());
+        salonDTO.setHoldMinutes(salon.getHoldMinutes());
+        salonDTO.setChairCount(salon.getChairCount());
+        salonDTO.setStylists(salon.getStylists() == null ? null : salon.getStylists().stream()
+                .map(SalonMapper::mapToDTO)
+                .collect(Collectors.toList()));
 
         return salonDTO;
     }
+
+    public static StylistHoursDTO mapToDTO(StylistHours stylist) {
+        StylistHoursDTO dto = new StylistHoursDTO();
+        dto.setName(stylist.getName());
+        dto.setStartTime(stylist.getStartTime());
+        dto.setEndTime(stylist.getEndTime());
+        return dto;
+    }
+
+    public static List<StylistHours> mapToEntities(List<StylistHoursDTO> stylists) {
+        if (stylists == null) {
+            return null;
+        }
+        return stylists.stream().map(dto -> {
+            StylistHours stylist = new StylistHours();
+            stylist.setName(dto.getName());
+            stylist.setStartTime(dto.getStartTime());
+            stylist.setEndTime(dto.getEndTime());
+            return stylist;
+        }).collect(Collectors.toList());
+    }
 }
@@ -39,6 +39,15 @@ public class Salon {
     @NonNull
     private LocalTime closeTime;
 
+    // minutes an unpaid booking holds its slot; null uses the booking service default, 0 never expires
+    private Integer holdMinutes;
+
+    // bookings the salon can serve at once; null means one
+    private Integer chairCount;
+
+    // when set, concurrent bookings are also capped by the stylists on shift
+    private List<StylistHours> stylists;
+
     public Salon() {
 
     }
@@ -0,0 +1,16 @@
+package com.utkarshhh.modal;
+
+import lombok.Data;
+
+import java.time.LocalTime;
+
+/**
+ * Daily working hours of one stylist; an end before the start runs past
+ * midnight, like the salon's own hours.
+ */
+@Data
+public class StylistHours {
+    private String name;
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
@@ -1,5 +1,6 @@
 package com.utkarshhh.service.impl;
 
+import com.utkarshhh.mapper.SalonMapper;
 import com.utkarshhh.modal.Salon;
 import com.utkarshhh.payload.dto.SalonDTO;
 import com.utkarshhh.payload.dto.UserDTO;
@@ -31,6 +32,9 @@ public class SalonServiceImpl implements SalonService {
         salon.setOpenTime(req.getOpenTime());
         salon.setCloseTime(req.getCloseTime());
         salon.setPhoneNumber(req.getPhoneNumber());
+        salon.setHoldMinutes(req.getHoldMinutes());
+        salon.setChairCount(req.getChairCount());
+        salon.setStylists(SalonMapper.mapToEntities(req.getStylists()));
         return (Salon) salonRepository.save(salon);
     }
 
@@ -51,6 +55,9 @@ public class SalonServiceImpl implements SalonService {
         salon.setOpenTime(salonDTO.getOpenTime());
         salon.setCloseTime(salonDTO.getCloseTime());
         salon.setImages(salonDTO.getImages());
+        salon.setHoldMinutes(salonDTO.getHoldMinutes());
+        salon.setChairCount(salonDTO.getChairCount());
+        salon.setStylists(SalonMapper.mapToEntities(salonDTO.getStylists()));
 
         return salonRepository.save(salon);
     }